@@ -12,7 +12,7 @@ public class InvalidCredentialsException extends RuntimeException {
     public InvalidCredentialsException(ErrorMessage errorMessage, Object... args) {
         super(errorMessage.getFormattedMessage(args));
         this.errorMessage = errorMessage;
-        AuthLogMessage.AUTH_EXCEPTION_OCCURRED.log(errorMessage.getFormattedMessage(args));
+        AuthLogMessage.AUTH_EXCEPTION_OCCURRED.log(getMessage());
     }
 
 }
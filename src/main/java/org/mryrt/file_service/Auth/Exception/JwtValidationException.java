@@ -13,7 +13,7 @@ public class JwtValidationException extends RuntimeException {
     public JwtValidationException(AuthErrorMessage authErrorMessage, Object... args) {
         super(authErrorMessage.getFormattedMessage(args));
         this.errorMessage = authErrorMessage;
-        AuthLogMessage.JWT_EXCEPTION_OCCURRED.log(authErrorMessage.getFormattedMessage(args));
+        AuthLogMessage.JWT_EXCEPTION_OCCURRED.log(getMessage());
     }
 
 }
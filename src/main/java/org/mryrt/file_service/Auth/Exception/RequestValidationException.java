@@ -12,7 +12,7 @@ public class RequestValidationException extends RuntimeException {
 
     public RequestValidationException(Map<String, String> validationErrors) {
         this.validationErrors = validationErrors;
-        AuthLogMessage.VALIDATION_EXCEPTION_OCCURRED.log(validationErrors.toString());
+        AuthLogMessage.VALIDATION_EXCEPTION_OCCURRED.log(validationErrors);
     }
 
 }
@@ -1,12 +1,14 @@
 package org.mryrt.file_service.Auth.Filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.mryrt.file_service.Auth.Exception.JwtException;
 import org.mryrt.file_service.Auth.Exception.JwtValidationException;
+import org.mryrt.file_service.Auth.Model.AuthUser;
 import org.mryrt.file_service.Auth.Service.JwtService;
 import org.mryrt.file_service.Auth.Service.UserService;
 import org.mryrt.file_service.Utility.Message.Auth.AuthLogMessage;
@@ -14,7 +16,6 @@ import org.springframework.http.HttpMethod;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -50,22 +51,22 @@ public class JwtFilter extends OncePerRequestFilter {
         return token;
     }
 
-    private String _extractUsername(String token) {
-        String username = jwtService.extractUsername(token);
+    private String _extractUsername(Claims claims) {
+        String username = claims.getSubject();
         if (username == null) throw new JwtValidationException(TOKEN_EXTRACTION_ERROR);
         if (SecurityContextHolder.getContext().getAuthentication() != null)
             throw new JwtValidationException(SECURITY_CONTEXT_ALREADY_SET);
         return username;
     }
 
-    private void _validateToken(String token) {
-        if (!jwtService.isIssuedAtValid(token)) throw new JwtValidationException(FUTURE_ISSUED_AT_TOKEN);
+    private void _validateToken(Claims claims) {
+        if (!jwtService.isIssuedAtValid(claims)) throw new JwtValidationException(FUTURE_ISSUED_AT_TOKEN);
     }
 
-    private void _setAuthorization(HttpServletRequest request, String username) {
+    private void _setAuthorization(HttpServletRequest request, Claims claims, String username) {
         try {
-            UserDetails userDetails = userService.loadUserByUsername(username);
-            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            AuthUser authUser = userService.loadAuthUser(jwtService.extractUserId(claims), username);
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(authUser, null, authUser.getAuthorities());
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
             AuthLogMessage.USER_LOGGED_IN.log(username);
@@ -82,9 +83,10 @@ public class JwtFilter extends OncePerRequestFilter {
                 return;
             }
             String token = _extractToken(request);
-            String username = _extractUsername(token);
-            _validateToken(token);
-            _setAuthorization(request, username);
+            Claims claims = jwtService.extractAllClaims(token);
+            String username = _extractUsername(claims);
+            _validateToken(claims);
+            _setAuthorization(request, claims, username);
             filterChain.doFilter(request, response);
         } catch (Exception exception) {
             if (exception instanceof JwtValidationException)
@@ -0,0 +1,31 @@
+package org.mryrt.file_service.Auth.Model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+@Getter
+public class AuthUser implements Principal {
+
+    private final long id;
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthUser(@NotNull User user) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.authorities = user.getRoles().stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_%s".formatted(role.toString())))
+                .toList();
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+}
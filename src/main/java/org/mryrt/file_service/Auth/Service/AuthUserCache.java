@@ -0,0 +1,47 @@
+package org.mryrt.file_service.Auth.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.mryrt.file_service.Auth.Model.AuthUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Service
+public class AuthUserCache {
+
+    private final Cache<Long, AuthUser> cache;
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AuthUserCache(@Value("${auth.principal-cache.max-size:10000}") long maxSize,
+                         @Value("${auth.principal-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public AuthUser get(long userId, Function<Long, AuthUser> loader) {
+        AuthUser authUser = cache.getIfPresent(userId);
+        return authUser != null ? authUser : load(() -> loader.apply(userId));
+    }
+
+    public AuthUser load(Supplier<AuthUser> loader) {
+        long generation = evictions.get();
+        AuthUser authUser = loader.get();
+        if (evictions.get() == generation)
+            cache.put(authUser.getId(), authUser);
+        return authUser;
+    }
+
+    public void evict(long userId) {
+        evictions.incrementAndGet();
+        cache.invalidate(userId);
+    }
+
+}
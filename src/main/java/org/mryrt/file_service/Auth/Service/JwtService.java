@@ -1,27 +1,39 @@
 package org.mryrt.file_service.Auth.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.mryrt.file_service.Auth.Model.User;
 import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
 import org.mryrt.file_service.Utility.Message.Auth.AuthLogMessage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
 
 @Service
 @TrackExecutionTime
 public class JwtService {
 
+    private static final String USER_ID_CLAIM = "uid";
+
+
     @Value("${jwt.secret}")
     private String SECRET;
 
@@ -31,48 +43,91 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private Duration EXPIRATION;
 
-    private String createToken(String username) {
+    @Value("${jwt.cache.max-size:10000}")
+    private long CACHE_MAX_SIZE;
+
+    private Key signKey;
+
+    private JwtParser parser;
+
+    private Cache<String, Claims> claimsCache;
+
+    @PostConstruct
+    private void init() {
+        signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signKey)
+                .requireIssuer(ISSUER)
+                .build();
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(CACHE_MAX_SIZE)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+                        return getTimeToLive(claims).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    private String createToken(User user) {
         Instant now = Instant.now();
         return Jwts.builder()
-                .setClaims(Map.of("iss", ISSUER))
-                .setSubject(username)
+                .setClaims(Map.of("iss", ISSUER, USER_ID_CLAIM, user.getId()))
+                .setSubject(user.getUsername())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(now.plusMillis(EXPIRATION.toMillis())))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(signKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) throws MalformedJwtException {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    private static Duration getTimeToLive(Claims claims) {
+        Duration timeToLive = Duration.between(Instant.now(), claims.getExpiration().toInstant());
+        return timeToLive.isNegative() ? Duration.ZERO : timeToLive;
     }
 
-    private Claims extractAllClaims(String token) throws MalformedJwtException {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignKey())
-                .requireIssuer(ISSUER)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String getTokenHash(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public Claims extractAllClaims(String token) throws MalformedJwtException {
+        String tokenHash = getTokenHash(token);
+        Claims claims = claimsCache.getIfPresent(tokenHash);
+        if (claims != null)
+            return claims;
+        claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null)
+            claimsCache.put(tokenHash, claims);
+        return claims;
     }
 
-    public String extractUsername(String token) throws MalformedJwtException {
-        return extractClaim(token, Claims::getSubject);
+    public Long extractUserId(Claims claims) {
+        return claims.get(USER_ID_CLAIM, Long.class);
     }
 
-    public boolean isIssuedAtValid(String token) {
-        Instant issuedAt = extractClaim(token, Claims::getIssuedAt).toInstant();
+    public boolean isIssuedAtValid(Claims claims) {
+        Instant issuedAt = claims.getIssuedAt().toInstant();
         return !issuedAt.isAfter(Instant.now());
     }
 
-    public String generateToken(String username) {
-        AuthLogMessage.GENERATING_TOKEN.log(username);
-        return createToken(username);
+    public String generateToken(User user) {
+        AuthLogMessage.GENERATING_TOKEN.log(user.getUsername());
+        return createToken(user);
     }
 
 }
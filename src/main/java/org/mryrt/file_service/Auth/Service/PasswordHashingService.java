@@ -0,0 +1,72 @@
+package org.mryrt.file_service.Auth.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.mryrt.file_service.Utility.Exceptions.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mryrt.file_service.Utility.Message.Global.GlobalErrorMessage.SERVICE_BUSY;
+
+@Service
+public class PasswordHashingService {
+
+    private static final String HASH_TIMER = "auth.password.hash";
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ExecutorService passwordHashExecutor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashExecutor") ExecutorService passwordHashExecutor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.password.hash-retry-after:1s}") Duration retryAfter) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashExecutor = passwordHashExecutor;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.encodeTimer = Timer.builder(HASH_TIMER).tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder(HASH_TIMER).tag("operation", "matches").register(meterRegistry);
+    }
+
+    private <T> T execute(Timer timer, Callable<T> task) {
+        try {
+            return passwordHashExecutor.submit(() -> timer.recordCallable(task)).get();
+        } catch (RejectedExecutionException exception) {
+            throw new ServiceUnavailableException(SERVICE_BUSY, retryAfterSeconds);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(SERVICE_BUSY, retryAfterSeconds);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    public String encode(String rawPassword) {
+        return execute(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.mryrt.file_service.Auth.Service;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.mryrt.file_service.Auth.Model.User;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class UserChangeListener {
+
+    private final AuthUserCache authUserCache;
+
+    public UserChangeListener(AuthUserCache authUserCache) {
+        this.authUserCache = authUserCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evictPrincipal(User user) {
+        if (user.getId() == null)
+            return;
+        long userId = user.getId();
+        authUserCache.evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    authUserCache.evict(userId);
+                }
+            });
+    }
+
+}
@@ -11,8 +11,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
@@ -31,11 +31,13 @@ public class UserService implements UserDetailsService {
 
     private final JwtService jwtService;
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+
+    private final AuthUserCache authUserCache;
 
     private void processUser(User user, SignUpRequest signUpRequest) {
         user.setUsername(signUpRequest.getUsername());
-        user.setPassword(passwordEncoder.encode(signUpRequest.getPassword()));
+        user.setPassword(passwordHashingService.encode(signUpRequest.getPassword()));
         user.setRoles(Set.of(UserRole.USER));
     }
 
@@ -52,7 +54,7 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException(USERNAME_NOT_FOUND.getFormattedMessage(username))));
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDTO userSignUp(@Valid SignUpRequest signUpRequest) {
         User user = new User();
         processUser(user, signUpRequest);
@@ -60,15 +62,35 @@ public class UserService implements UserDetailsService {
         return new UserDTO(savedUser);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String userLogIn(@Valid LogInRequest logInRequest) {
         User user = getUserByUsername(logInRequest.getUsername());
-        if (!passwordEncoder.matches(logInRequest.getPassword(), user.getPassword()))
+        if (!passwordHashingService.matches(logInRequest.getPassword(), user.getPassword()))
             throw new InvalidCredentialsException(WRONG_PASSWORD);
-        return jwtService.generateToken(user.getUsername());
+        if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(logInRequest.getPassword()));
+            user = userRepository.save(user);
+        }
+        return jwtService.generateToken(user);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public AuthUser loadAuthUser(Long userId, String username) throws UsernameNotFoundException {
+        if (userId == null)
+            return authUserCache.load(() -> new AuthUser(userRepository
+                    .findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException(USERNAME_NOT_FOUND.getFormattedMessage(username)))));
+        return authUserCache.get(userId, id -> userRepository
+                .findById(id)
+                .map(AuthUser::new)
+                .orElseThrow(() -> new UsernameNotFoundException(USERNAME_NOT_FOUND.getFormattedMessage(username))));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public long getAuthUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthUser authUser)
+            return authUser.getId();
         if (authentication != null && authentication.isAuthenticated())
             return getUserByUsername(authentication.getName()).getId();
         throw new InvalidCredentialsException(USER_NOT_AUTHENTICATED);
@@ -6,10 +6,19 @@ import org.mryrt.file_service.Auth.Service.UserService;
 import org.mryrt.file_service.FileService.Annotation.FileSync;
 import org.mryrt.file_service.FileService.Model.FileMeta;
 import org.mryrt.file_service.FileService.Repository.FileMetaRepository;
+import org.mryrt.file_service.FileService.Service.FileBlobService;
+import org.mryrt.file_service.FileService.Service.FileChangeJournal;
+import org.mryrt.file_service.FileService.Service.FileContentCache;
+import org.mryrt.file_service.FileService.Service.FileMetaService;
 import org.mryrt.file_service.FileService.Service.FilePathService;
+import org.mryrt.file_service.FileService.Service.StorageUsageService;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.FILE_NOT_FOUND_ON_DISK;
 
@@ -23,25 +32,71 @@ public class FileSynchronizationAspect {
 
     private final UserService userService;
 
-    public FileSynchronizationAspect(FileMetaRepository fileMetaRepository, FilePathService filePathService, UserService userService) {
+    private final StorageUsageService storageUsageService;
+
+    private final FileChangeJournal fileChangeJournal;
+
+    private final FileBlobService fileBlobService;
+
+    private final FileContentCache fileContentCache;
+
+    private final FileMetaService fileMetaService;
+
+    public FileSynchronizationAspect(FileMetaRepository fileMetaRepository, FilePathService filePathService, UserService userService,
+                                     StorageUsageService storageUsageService, FileChangeJournal fileChangeJournal,
+                                     FileBlobService fileBlobService, FileContentCache fileContentCache, FileMetaService fileMetaService) {
         this.fileMetaRepository = fileMetaRepository;
         this.filePathService = filePathService;
         this.userService = userService;
+        this.storageUsageService = storageUsageService;
+        this.fileChangeJournal = fileChangeJournal;
+        this.fileBlobService = fileBlobService;
+        this.fileContentCache = fileContentCache;
+        this.fileMetaService = fileMetaService;
     }
 
     @Before("@annotation(ignoredFileSync)")
     public void setFileSynchronization(FileSync ignoredFileSync) {
         long userId = userService.getAuthUserId();
-        List<FileMeta> userFilesMeta = fileMetaRepository.findAllByOwnerId(userId);
-        List<String> userFilenames = userFilesMeta.stream().map(fileMeta -> fileMeta.getUuid() + fileMeta.getExtension()).toList();
-        List<String> matchedFilenameList = filePathService.syncingUserFiles(userFilenames, userId);
-        userFilesMeta.forEach(fileMeta -> {
-            if (!matchedFilenameList.contains(fileMeta.getDiskName()) && !fileMeta.isDeletedFromDisk()) {
-                fileMeta.setDeletedFromDisk(true);
-                fileMetaRepository.save(fileMeta);
-                FILE_NOT_FOUND_ON_DISK.log(fileMeta.getName(), userId);
-            }
+        Optional<Set<String>> changedFilenames = fileChangeJournal.takeChanges(userId, filePathService.getUserFolder(userId));
+        if (changedFilenames.isPresent() && changedFilenames.get().isEmpty())
+            return;
+
+        List<FileMeta> userFilesMeta;
+        List<String> matchedFilenameList;
+        if (changedFilenames.isPresent()) {
+            Set<String> changedUuids = changedFilenames.get().stream().map(FileSynchronizationAspect::getUuid).collect(Collectors.toSet());
+            fileContentCache.invalidateAll(changedUuids);
+            userFilesMeta = fileMetaRepository.findAllByOwnerIdAndUuidIn(userId, changedUuids);
+            matchedFilenameList = filePathService.syncingUserFiles(getDiskNames(userFilesMeta), changedFilenames.get(), userId);
+        } else {
+            userFilesMeta = fileMetaRepository.findAllByOwnerId(userId);
+            matchedFilenameList = filePathService.syncingUserFiles(getDiskNames(userFilesMeta), userId);
+        }
+
+        Set<String> matchedFilenames = new HashSet<>(matchedFilenameList);
+        List<FileMeta> deletedFilesMeta = userFilesMeta.stream()
+                .filter(fileMeta -> !matchedFilenames.contains(fileMeta.getDiskName()) && !fileMeta.isDeletedFromDisk())
+                .toList();
+        if (deletedFilesMeta.isEmpty())
+            return;
+        fileMetaService.markDeletedFromDisk(userId, deletedFilesMeta);
+        deletedFilesMeta.forEach(fileMeta -> {
+            fileContentCache.invalidate(fileMeta.getUuid());
+            if (fileMeta.isDeduplicated())
+                fileBlobService.release(fileMeta.getBlobKey());
+            FILE_NOT_FOUND_ON_DISK.log(fileMeta.getName(), userId);
         });
+        storageUsageService.incrementMetadataVersion(userId);
+    }
+
+    private static String getUuid(String filename) {
+        int dotIndex = filename.indexOf('.');
+        return dotIndex > 0 ? filename.substring(0, dotIndex) : filename;
+    }
+
+    private static List<String> getDiskNames(List<FileMeta> filesMeta) {
+        return filesMeta.stream().map(FileMeta::getDiskName).toList();
     }
 
 }
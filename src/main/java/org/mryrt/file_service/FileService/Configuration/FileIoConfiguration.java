@@ -0,0 +1,22 @@
+package org.mryrt.file_service.FileService.Configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class FileIoConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService fileIoExecutor(@Value("${file.service.io-threads:8}") int ioThreads,
+                                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads)
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("file-io-", 0).factory());
+        return Executors.newFixedThreadPool(ioThreads, new CustomizableThreadFactory("file-io-"));
+    }
+
+}
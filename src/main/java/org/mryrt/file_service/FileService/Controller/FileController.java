@@ -1,42 +1,98 @@
 package org.mryrt.file_service.FileService.Controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.mryrt.file_service.FileService.Model.FileArchiveRequest;
+import org.mryrt.file_service.FileService.Model.FileDeleteResultDTO;
+import org.mryrt.file_service.FileService.Model.FileMeta;
 import org.mryrt.file_service.FileService.Model.FileMetaDTO;
+import org.mryrt.file_service.FileService.Model.FileMetaPage;
+import org.mryrt.file_service.FileService.Model.FileUploadResultDTO;
+import org.mryrt.file_service.FileService.Service.FileArchiveService;
 import org.mryrt.file_service.FileService.Service.FileService;
+import org.mryrt.file_service.FileService.Service.FileTransferService;
 import org.springframework.core.io.Resource;
 import org.springframework.data.util.Pair;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("api/files")
 @AllArgsConstructor
 public class FileController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final FileService fileService;
 
+    private final FileTransferService fileTransferService;
+
+    private final FileArchiveService fileArchiveService;
+
     @PostMapping()
     public ResponseEntity<FileMetaDTO> uploadFile(@RequestParam("file") MultipartFile[] files) {
         FileMetaDTO fileMetaDTO = fileService.uploadFile(files);
         return ResponseEntity.ok(fileMetaDTO);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<FileUploadResultDTO>> uploadFiles(@RequestParam("file") MultipartFile[] files) {
+        List<FileUploadResultDTO> results = fileService.uploadFiles(files);
+        return ResponseEntity.ok(results);
+    }
+
+    @PutMapping(value = "/{name}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<FileMetaDTO> uploadFileStream(@PathVariable String name,
+                                                        @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+                                                        InputStream body) {
+        FileMetaDTO fileMetaDTO = fileService.uploadFile(name, body, contentLength == null ? -1 : contentLength);
+        return ResponseEntity.ok(fileMetaDTO);
+    }
+
     @GetMapping()
-    public ResponseEntity<List<FileMetaDTO>> getFiles() {
-        List<FileMetaDTO> fileMetaList = fileService.getFiles();
-        return ResponseEntity.ok(fileMetaList);
+    public ResponseEntity<List<FileMetaDTO>> getFiles(@RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) String after,
+                                                      WebRequest webRequest) {
+        FileMetaPage page = fileService.getFiles(limit, after);
+        if (webRequest.checkNotModified(page.getETag()))
+            return null;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(page.getETag());
+        if (page.getNextCursor() != null)
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        return response.body(page.getFiles());
     }
 
     @GetMapping("/{uuid}")
-    public ResponseEntity<Resource> getFileByUuid(@PathVariable String uuid) {
-        Pair<Resource, HttpHeaders> file = fileService.getFile(uuid);
-        return ResponseEntity.ok()
-                .headers(file.getSecond())
-                .body(file.getFirst());
+    public void getFileByUuid(@PathVariable String uuid, HttpServletRequest request, HttpServletResponse response) {
+        Pair<Supplier<Resource>, HttpHeaders> file = fileService.getFile(uuid);
+        fileTransferService.transferFile(file.getFirst(), file.getSecond(), request, response);
+    }
+
+    @PostMapping("/archive")
+    public void getArchive(@RequestBody FileArchiveRequest archiveRequest, HttpServletResponse response) {
+        List<FileMeta> filesMeta = fileService.getArchiveFiles(archiveRequest);
+        fileArchiveService.transferArchive(filesMeta, response);
+    }
+
+    @PostMapping("/{uuid}/verify")
+    public ResponseEntity<FileMetaDTO> verifyFile(@PathVariable String uuid) {
+        FileMetaDTO fileMetaDTO = fileService.verifyFile(uuid);
+        return ResponseEntity.ok(fileMetaDTO);
+    }
+
+    @PostMapping("/delete")
+    public ResponseEntity<List<FileDeleteResultDTO>> deleteFiles(@RequestBody List<String> uuids) {
+        List<FileDeleteResultDTO> results = fileService.deleteFiles(uuids);
+        return ResponseEntity.ok(results);
     }
 
     @DeleteMapping("/{uuid}")
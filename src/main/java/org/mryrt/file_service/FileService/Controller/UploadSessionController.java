@@ -0,0 +1,57 @@
+package org.mryrt.file_service.FileService.Controller;
+
+import lombok.AllArgsConstructor;
+import org.mryrt.file_service.FileService.Model.FileMetaDTO;
+import org.mryrt.file_service.FileService.Model.UploadSessionDTO;
+import org.mryrt.file_service.FileService.Model.UploadSessionRequest;
+import org.mryrt.file_service.FileService.Service.UploadSessionService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("api/files/uploads")
+@AllArgsConstructor
+public class UploadSessionController {
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping()
+    public ResponseEntity<UploadSessionDTO> createSession(@RequestBody UploadSessionRequest uploadSessionRequest) {
+        UploadSessionDTO uploadSessionDTO = uploadSessionService.createSession(uploadSessionRequest);
+        return ResponseEntity.ok(uploadSessionDTO);
+    }
+
+    @GetMapping("/{uuid}")
+    public ResponseEntity<UploadSessionDTO> getSession(@PathVariable String uuid) {
+        UploadSessionDTO uploadSessionDTO = uploadSessionService.getSession(uuid);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(uploadSessionDTO.getOffset()))
+                .body(uploadSessionDTO);
+    }
+
+    @PatchMapping(value = "/{uuid}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionDTO> uploadChunk(@PathVariable String uuid, @RequestHeader(UPLOAD_OFFSET) long offset, InputStream body) {
+        UploadSessionDTO uploadSessionDTO = uploadSessionService.uploadChunk(uuid, offset, body);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(uploadSessionDTO.getOffset()))
+                .body(uploadSessionDTO);
+    }
+
+    @PostMapping("/{uuid}/complete")
+    public ResponseEntity<FileMetaDTO> completeSession(@PathVariable String uuid) {
+        FileMetaDTO fileMetaDTO = uploadSessionService.completeSession(uuid);
+        return ResponseEntity.ok(fileMetaDTO);
+    }
+
+    @DeleteMapping("/{uuid}")
+    public ResponseEntity<UploadSessionDTO> deleteSession(@PathVariable String uuid) {
+        UploadSessionDTO uploadSessionDTO = uploadSessionService.deleteSession(uuid);
+        return ResponseEntity.ok(uploadSessionDTO);
+    }
+
+}
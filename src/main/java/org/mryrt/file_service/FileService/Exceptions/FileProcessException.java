@@ -14,13 +14,13 @@ public class FileProcessException extends RuntimeException {
     public FileProcessException(ErrorMessage errorMessage, Object... args) {
         super(errorMessage.getFormattedMessage(args));
         this.errorMessage = errorMessage;
-        FILE_EXCEPTION_OCCURRED.log(errorMessage.getFormattedMessage(args));
+        FILE_EXCEPTION_OCCURRED.log(getMessage());
     }
 
     public FileProcessException(ErrorMessage errorMessage, Exception exception, Object... args) {
         super(errorMessage.getFormattedMessage(args));
         this.errorMessage = errorMessage;
-        FILE_INTERNAL_EXCEPTION_OCCURRED.log(exception.getMessage(), errorMessage.getFormattedMessage(args));
+        FILE_INTERNAL_EXCEPTION_OCCURRED.log(exception.getMessage(), getMessage());
     }
 
 }
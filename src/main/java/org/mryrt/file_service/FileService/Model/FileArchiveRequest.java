@@ -0,0 +1,18 @@
+package org.mryrt.file_service.FileService.Model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FileArchiveRequest {
+
+    private List<String> uuids;
+
+    private boolean all;
+
+}
@@ -0,0 +1,16 @@
+package org.mryrt.file_service.FileService.Model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public enum FileCodec {
+
+    GZIP("gzip", ".gz");
+
+    private final String contentEncoding;
+
+    private final String suffix;
+
+}
@@ -0,0 +1,33 @@
+package org.mryrt.file_service.FileService.Model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
+import org.springframework.http.HttpStatus;
+
+@Data
+public class FileDeleteResultDTO {
+
+    private String uuid;
+
+    private int status;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private FileMetaDTO file;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public FileDeleteResultDTO(String uuid, FileMetaDTO file) {
+        this.uuid = uuid;
+        this.status = HttpStatus.OK.value();
+        this.file = file;
+    }
+
+    public FileDeleteResultDTO(String uuid, FileProcessException exception) {
+        this.uuid = uuid;
+        this.status = exception.getErrorMessage().getHttpStatus().value();
+        this.error = exception.getMessage();
+    }
+
+}
@@ -13,7 +13,11 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.Instant;
 
 @Entity
-@Table(name = "file_meta")
+@Table(name = "file_meta", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_file_meta_owner_base_name", columnNames = {"owner_id", "base_name", "duplicate_index"})
+}, indexes = {
+        @Index(name = "idx_file_meta_owner_create_at", columnList = "owner_id, create_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -21,7 +25,8 @@ import java.time.Instant;
 @EntityListeners(AuditingEntityListener.class)
 public class FileMeta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "file_meta_seq")
+    @SequenceGenerator(name = "file_meta_seq", sequenceName = "file_meta_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false)
@@ -36,6 +41,10 @@ public class FileMeta {
     @Column(nullable = false)
     private String extension;
 
+    private String baseName;
+
+    private Integer duplicateIndex;
+
     @NaturalId
     @Column(unique = true, nullable = false)
     private String uuid;
@@ -43,7 +52,19 @@ public class FileMeta {
     @Column(nullable = false)
     private boolean deletedFromDisk;
 
-    @Transient
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean deduplicated;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private FileCodec codec;
+
+    private Long storedSize;
+
+    @Column(nullable = false, columnDefinition = "boolean default false")
     private boolean suspiciousModified;
 
     @CreatedDate
@@ -58,4 +79,8 @@ public class FileMeta {
         return uuid + extension;
     }
 
+    public String getBlobKey() {
+        return codec == null ? contentHash : contentHash + codec.getSuffix();
+    }
+
 }
\ No newline at end of file
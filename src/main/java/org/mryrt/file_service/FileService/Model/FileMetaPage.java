@@ -0,0 +1,18 @@
+package org.mryrt.file_service.FileService.Model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class FileMetaPage {
+
+    private List<FileMetaDTO> files;
+
+    private String nextCursor;
+
+    private String eTag;
+
+}
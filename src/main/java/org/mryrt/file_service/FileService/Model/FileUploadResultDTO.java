@@ -0,0 +1,33 @@
+package org.mryrt.file_service.FileService.Model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
+import org.springframework.http.HttpStatus;
+
+@Data
+public class FileUploadResultDTO {
+
+    private String name;
+
+    private int status;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private FileMetaDTO file;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public FileUploadResultDTO(String name, FileMetaDTO file) {
+        this.name = name;
+        this.status = HttpStatus.OK.value();
+        this.file = file;
+    }
+
+    public FileUploadResultDTO(String name, FileProcessException exception) {
+        this.name = name;
+        this.status = exception.getErrorMessage().getHttpStatus().value();
+        this.error = exception.getMessage();
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.mryrt.file_service.FileService.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "storage_usage")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageUsage {
+    @Id
+    private Long ownerId;
+
+    @Column(nullable = false)
+    private Long usedBytes;
+
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long reservedBytes;
+
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long metadataVersion;
+
+}
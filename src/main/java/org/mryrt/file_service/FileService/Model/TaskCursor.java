@@ -0,0 +1,24 @@
+package org.mryrt.file_service.FileService.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "task_cursor")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCursor {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Integer position;
+
+}
@@ -0,0 +1,31 @@
+package org.mryrt.file_service.FileService.Model;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class UploadSessionDTO {
+
+    private String uuid;
+
+    private String name;
+
+    private long size;
+
+    private long offset;
+
+    private Instant expiresAt;
+
+    private Instant createAt;
+
+    public UploadSessionDTO(UploadSession uploadSession) {
+        this.uuid = uploadSession.getUuid();
+        this.name = uploadSession.getName();
+        this.size = uploadSession.getSize();
+        this.offset = uploadSession.getUploadOffset();
+        this.expiresAt = uploadSession.getExpiresAt();
+        this.createAt = uploadSession.getCreateAt();
+    }
+
+}
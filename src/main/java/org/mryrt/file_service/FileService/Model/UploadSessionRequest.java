@@ -0,0 +1,16 @@
+package org.mryrt.file_service.FileService.Model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionRequest {
+
+    private String name;
+
+    private long size;
+
+}
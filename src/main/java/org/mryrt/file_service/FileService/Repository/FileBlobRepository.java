@@ -0,0 +1,32 @@
+package org.mryrt.file_service.FileService.Repository;
+
+import org.mryrt.file_service.FileService.Model.FileBlob;
+import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@TrackExecutionTime
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO file_blob (hash, size, ref_count) VALUES (:hash, :size, 1) " +
+            "ON CONFLICT (hash) DO UPDATE SET ref_count = file_blob.ref_count + 1", nativeQuery = true)
+    int acquire(@Param("hash") String hash, @Param("size") long size);
+
+    @Modifying
+    @Transactional
+    @Query("update FileBlob b set b.refCount = b.refCount - 1 where b.hash = :hash and b.refCount > 0")
+    int release(@Param("hash") String hash);
+
+    @Modifying
+    @Transactional
+    @Query("delete from FileBlob b where b.hash = :hash and b.refCount <= 0")
+    int deleteUnreferenced(@Param("hash") String hash);
+
+}
@@ -2,9 +2,16 @@ package org.mryrt.file_service.FileService.Repository;
 
 import org.mryrt.file_service.FileService.Model.FileMeta;
 import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +23,33 @@ public interface FileMetaRepository extends JpaRepository<FileMeta, Integer> {
 
     List<FileMeta> findAllByOwnerId(long ownerId);
 
+    List<FileMeta> findAllByOwnerIdAndUuidIn(long ownerId, Collection<String> uuids);
+
+    List<FileMeta> findAllByOwnerIdAndBaseNameIn(long ownerId, Collection<String> baseNames);
+
+    List<FileMeta> findAllByOwnerIdOrderByCreateAtAscIdAsc(long ownerId, Limit limit);
+
+    @Query("select f from FileMeta f where f.ownerId = :ownerId and (f.createAt > :createAt or (f.createAt = :createAt and f.id > :id)) " +
+            "order by f.createAt, f.id")
+    List<FileMeta> findAllAfter(@Param("ownerId") long ownerId, @Param("createAt") Instant createAt, @Param("id") int id, Limit limit);
+
+    List<FileMeta> findAllByIdGreaterThanAndDeletedFromDiskFalseOrderByIdAsc(int id, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("update FileMeta f set f.contentHash = :contentHash, f.suspiciousModified = :suspiciousModified where f.id = :id")
+    int updateIntegrity(@Param("id") int id, @Param("contentHash") String contentHash, @Param("suspiciousModified") boolean suspiciousModified);
+
+    List<FileMeta> findAllByBaseNameIsNull();
+
+    boolean existsByOwnerIdAndBaseNameAndDuplicateIndex(long ownerId, String baseName, int duplicateIndex);
+
+    @Query("select max(f.duplicateIndex) from FileMeta f where f.ownerId = :ownerId and f.baseName = :baseName")
+    Optional<Integer> findMaxDuplicateIndex(@Param("ownerId") long ownerId, @Param("baseName") String baseName);
+
+    @Transactional
+    @Query(value = "SELECT setval('file_meta_seq', t.max_id) FROM (SELECT MAX(id) AS max_id FROM file_meta) t " +
+            "WHERE t.max_id > (SELECT last_value FROM file_meta_seq)", nativeQuery = true)
+    Optional<Long> alignIdSequence();
+
 }
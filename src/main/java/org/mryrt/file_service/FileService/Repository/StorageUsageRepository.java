@@ -0,0 +1,73 @@
+package org.mryrt.file_service.FileService.Repository;
+
+import org.mryrt.file_service.FileService.Model.StorageUsage;
+import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+@TrackExecutionTime
+public interface StorageUsageRepository extends JpaRepository<StorageUsage, Long> {
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT owner_id FROM storage_usage WHERE owner_id = :ownerId FOR UPDATE", nativeQuery = true)
+    List<Long> lock(@Param("ownerId") long ownerId);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT owner_id FROM storage_usage ORDER BY owner_id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAll();
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO storage_usage (owner_id, used_bytes) " +
+            "SELECT :ownerId, COALESCE(SUM(f.size), 0) FROM file_meta f WHERE f.owner_id = :ownerId AND f.deleted_from_disk = false " +
+            "ON CONFLICT (owner_id) DO NOTHING", nativeQuery = true)
+    int initialize(@Param("ownerId") long ownerId);
+
+    @Modifying
+    @Transactional
+    @Query("update StorageUsage u set u.reservedBytes = u.reservedBytes + :size " +
+            "where u.ownerId = :ownerId and u.usedBytes + u.reservedBytes + :size <= :limit")
+    int reserve(@Param("ownerId") long ownerId, @Param("size") long size, @Param("limit") long limit);
+
+    @Modifying
+    @Transactional
+    @Query("update StorageUsage u set u.usedBytes = case when u.usedBytes > :size then u.usedBytes - :size else 0 end where u.ownerId = :ownerId")
+    int release(@Param("ownerId") long ownerId, @Param("size") long size);
+
+    @Modifying
+    @Transactional
+    @Query("update StorageUsage u set u.reservedBytes = case when u.reservedBytes > :size then u.reservedBytes - :size else 0 end, " +
+            "u.usedBytes = u.usedBytes + :size where u.ownerId = :ownerId")
+    int commitReservation(@Param("ownerId") long ownerId, @Param("size") long size);
+
+    @Modifying
+    @Transactional
+    @Query("update StorageUsage u set u.usedBytes = case when u.usedBytes > :size then u.usedBytes - :size else 0 end, " +
+            "u.reservedBytes = u.reservedBytes + :size where u.ownerId = :ownerId")
+    int revertReservation(@Param("ownerId") long ownerId, @Param("size") long size);
+
+    @Modifying
+    @Transactional
+    @Query("update StorageUsage u set u.reservedBytes = case when u.reservedBytes > :size then u.reservedBytes - :size else 0 end where u.ownerId = :ownerId")
+    int cancelReservation(@Param("ownerId") long ownerId, @Param("size") long size);
+
+    @Modifying
+    @Transactional
+    @Query("update StorageUsage u set u.metadataVersion = u.metadataVersion + 1 where u.ownerId = :ownerId")
+    int incrementMetadataVersion(@Param("ownerId") long ownerId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE storage_usage u SET used_bytes = COALESCE(" +
+            "(SELECT SUM(f.size) FROM file_meta f WHERE f.owner_id = u.owner_id AND f.deleted_from_disk = false), 0)", nativeQuery = true)
+    int reconcile();
+
+}
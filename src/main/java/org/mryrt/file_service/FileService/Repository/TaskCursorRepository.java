@@ -0,0 +1,11 @@
+package org.mryrt.file_service.FileService.Repository;
+
+import org.mryrt.file_service.FileService.Model.TaskCursor;
+import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@TrackExecutionTime
+public interface TaskCursorRepository extends JpaRepository<TaskCursor, String> {
+}
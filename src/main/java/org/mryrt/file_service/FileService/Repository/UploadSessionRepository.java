@@ -0,0 +1,41 @@
+package org.mryrt.file_service.FileService.Repository;
+
+import org.mryrt.file_service.FileService.Model.UploadSession;
+import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@TrackExecutionTime
+public interface UploadSessionRepository extends JpaRepository<UploadSession, Integer> {
+
+    Optional<UploadSession> findByUuidAndOwnerId(String uuid, long ownerId);
+
+    List<UploadSession> findAllByExpiresAtBefore(Instant instant);
+
+    @Modifying
+    @Transactional
+    @Query("update UploadSession s set s.uploadOffset = :newOffset, s.expiresAt = :expiresAt, s.updateAt = :updateAt " +
+            "where s.id = :id and s.uploadOffset = :offset")
+    int updateOffset(@Param("id") int id, @Param("offset") long offset, @Param("newOffset") long newOffset,
+                     @Param("expiresAt") Instant expiresAt, @Param("updateAt") Instant updateAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from UploadSession s where s.id = :id")
+    int remove(@Param("id") int id);
+
+    @Modifying
+    @Transactional
+    @Query("delete from UploadSession s where s.id = :id and s.expiresAt < :now")
+    int removeExpired(@Param("id") int id, @Param("now") Instant now);
+
+}
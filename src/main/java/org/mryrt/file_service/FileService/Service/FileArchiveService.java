@@ -0,0 +1,96 @@
+package org.mryrt.file_service.FileService.Service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
+import org.mryrt.file_service.FileService.Model.FileCodec;
+import org.mryrt.file_service.FileService.Model.FileMeta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.FILE_TRANSFER_ERROR;
+
+@Service
+public class FileArchiveService {
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final String ARCHIVE_CONTENT_TYPE = "application/zip";
+    private static final String ARCHIVE_FILENAME = "files.zip";
+
+    private final FilePathService filePathService;
+
+    @Value("${file.service.archive.stored-extensions:}")
+    private Set<String> STORED_EXTENSIONS;
+
+    public FileArchiveService(FilePathService filePathService) {
+        this.filePathService = filePathService;
+    }
+
+    private boolean isStored(FileMeta fileMeta) {
+        return STORED_EXTENSIONS.contains(FileMetaService.getExtension(fileMeta.getName()).toLowerCase());
+    }
+
+    private InputStream openFile(Path path, FileMeta fileMeta) throws IOException {
+        InputStream inputStream = Files.newInputStream(path);
+        return fileMeta.getCodec() == FileCodec.GZIP ? new GZIPInputStream(inputStream, IO_BUFFER_SIZE) : inputStream;
+    }
+
+    private long checksum(Path path, FileMeta fileMeta, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream inputStream = openFile(path, fileMeta)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1)
+                crc.update(buffer, 0, read);
+        }
+        return crc.getValue();
+    }
+
+    private void writeEntry(ZipOutputStream zipOutputStream, FileMeta fileMeta, byte[] buffer) throws IOException {
+        Path path = filePathService.getUserFile(fileMeta.getDiskName(), fileMeta.getOwnerId()).getFile().toPath();
+        ZipEntry entry = new ZipEntry(fileMeta.getName());
+        entry.setTime(fileMeta.getUpdateAt().toEpochMilli());
+        if (isStored(fileMeta)) {
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(fileMeta.getSize());
+            entry.setCompressedSize(fileMeta.getSize());
+            entry.setCrc(checksum(path, fileMeta, buffer));
+        }
+        zipOutputStream.putNextEntry(entry);
+        try (InputStream inputStream = openFile(path, fileMeta)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1)
+                zipOutputStream.write(buffer, 0, read);
+        }
+        zipOutputStream.closeEntry();
+    }
+
+    public void transferArchive(List<FileMeta> filesMeta, HttpServletResponse response) {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(ARCHIVE_CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"%s\"".formatted(ARCHIVE_FILENAME));
+        try {
+            ZipOutputStream zipOutputStream = new ZipOutputStream(response.getOutputStream());
+            zipOutputStream.setLevel(Deflater.BEST_SPEED);
+            byte[] buffer = new byte[IO_BUFFER_SIZE];
+            for (FileMeta fileMeta : filesMeta)
+                writeEntry(zipOutputStream, fileMeta, buffer);
+            zipOutputStream.finish();
+        } catch (IOException exception) {
+            throw new FileProcessException(FILE_TRANSFER_ERROR, exception);
+        }
+    }
+
+}
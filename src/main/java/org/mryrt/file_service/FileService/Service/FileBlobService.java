@@ -0,0 +1,76 @@
+package org.mryrt.file_service.FileService.Service;
+
+import org.mryrt.file_service.FileService.Repository.FileBlobRepository;
+import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+@Service
+@TrackExecutionTime
+public class FileBlobService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Lock[] locks = IntStream.range(0, LOCK_STRIPES).mapToObj(ignored -> new ReentrantLock()).toArray(Lock[]::new);
+
+    private final FileBlobRepository fileBlobRepository;
+
+    private final FilePathService filePathService;
+
+    @Value("${file.service.deduplication.enabled:false}")
+    private boolean enabled;
+
+    public FileBlobService(FileBlobRepository fileBlobRepository, FilePathService filePathService) {
+        this.fileBlobRepository = fileBlobRepository;
+        this.filePathService = filePathService;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private Lock getLock(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    public void storeStagedFile(String stagingId, String hash, long size, String filename, long userId) {
+        Lock lock = getLock(hash);
+        lock.lock();
+        try {
+            fileBlobRepository.acquire(hash, size);
+            try {
+                if (filePathService.blobExists(hash))
+                    filePathService.deleteStagedFile(stagingId);
+                else
+                    filePathService.moveStagedFileToBlob(stagingId, hash);
+                filePathService.linkBlob(hash, filename, userId);
+            } catch (RuntimeException exception) {
+                releaseReference(hash);
+                throw exception;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(String hash) {
+        Lock lock = getLock(hash);
+        lock.lock();
+        try {
+            releaseReference(hash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseReference(String hash) {
+        fileBlobRepository.release(hash);
+        if (fileBlobRepository.deleteUnreferenced(hash) > 0)
+            filePathService.deleteBlob(hash);
+    }
+
+}
@@ -0,0 +1,188 @@
+package org.mryrt.file_service.FileService.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.USER_DIRECTORY_WATCH_FAILED;
+import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.USER_DIRECTORY_WATCH_LIMIT_REACHED;
+
+@Service
+public class FileChangeJournal {
+
+    private static final int MAX_PENDING_CHANGES = 10_000;
+
+    private final Map<WatchKey, Long> watchedFolders = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<String>> pendingChanges = new ConcurrentHashMap<>();
+
+    private final Map<Long, Map<Path, FileState>> ownChanges = new ConcurrentHashMap<>();
+
+    private final Set<Long> scannedUsers = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> unwatchedUsers = ConcurrentHashMap.newKeySet();
+
+    private final Lock drainLock = new ReentrantLock();
+
+    private final WatchService watchService;
+
+    private final int maxWatches;
+
+    public FileChangeJournal(@Value("${file.service.sync.mode:scan}") String syncMode,
+                             @Value("${file.service.sync.max-watches:8192}") int maxWatches) throws IOException {
+        this.watchService = "watch".equalsIgnoreCase(syncMode) ? FileSystems.getDefault().newWatchService() : null;
+        this.maxWatches = maxWatches;
+    }
+
+    public Optional<Set<String>> takeChanges(long userId, Path userFolder) {
+        if (watchService == null || unwatchedUsers.contains(userId))
+            return Optional.empty();
+        drainEvents();
+        if (!scannedUsers.contains(userId)) {
+            if (!watchedFolders.containsValue(userId) && !register(userId, userFolder))
+                return Optional.empty();
+            pendingChanges.remove(userId);
+            ownChanges.remove(userId);
+            scannedUsers.add(userId);
+            return Optional.empty();
+        }
+        Set<String> changes = pendingChanges.remove(userId);
+        return Optional.of(changes == null ? Set.of() : changes);
+    }
+
+    public void recordOwnChange(long userId, Path file) {
+        if (watchService == null || !scannedUsers.contains(userId))
+            return;
+        Map<Path, FileState> changes = ownChanges.computeIfAbsent(userId, ignored -> new ConcurrentHashMap<>());
+        changes.put(file, FileState.of(file));
+        if (changes.size() > MAX_PENDING_CHANGES)
+            ownChanges.remove(userId);
+    }
+
+    public void requestFullScan() {
+        scannedUsers.clear();
+        unwatchedUsers.clear();
+        ownChanges.clear();
+    }
+
+    private boolean register(long userId, Path folder) {
+        try (Stream<Path> pathStream = Files.walk(folder)) {
+            List<Path> directories = pathStream.filter(path -> Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)).toList();
+            if (watchedFolders.size() + directories.size() > maxWatches) {
+                USER_DIRECTORY_WATCH_LIMIT_REACHED.log(userId, maxWatches);
+                unwatch(userId);
+                return false;
+            }
+            for (Path directory : directories)
+                watchedFolders.put(directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), userId);
+            return true;
+        } catch (IOException exception) {
+            USER_DIRECTORY_WATCH_FAILED.log(userId, exception.getMessage());
+            return false;
+        }
+    }
+
+    private void unwatch(long userId) {
+        unwatchedUsers.add(userId);
+        scannedUsers.remove(userId);
+        pendingChanges.remove(userId);
+        ownChanges.remove(userId);
+        watchedFolders.entrySet().removeIf(entry -> {
+            if (entry.getValue() != userId)
+                return false;
+            entry.getKey().cancel();
+            return true;
+        });
+    }
+
+    private void drainEvents() {
+        drainLock.lock();
+        try {
+            WatchKey watchKey;
+            while ((watchKey = watchService.poll()) != null) {
+                Long userId = watchedFolders.get(watchKey);
+                if (userId != null) {
+                    Path directory = (Path) watchKey.watchable();
+                    watchKey.pollEvents().forEach(event -> record(userId, directory, event));
+                }
+                if (!watchKey.reset()) {
+                    watchedFolders.remove(watchKey);
+                    if (userId != null)
+                        scannedUsers.remove(userId);
+                }
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void record(long userId, Path directory, WatchEvent<?> event) {
+        if (event.kind() == OVERFLOW) {
+            scannedUsers.remove(userId);
+            return;
+        }
+        Path path = directory.resolve((Path) event.context());
+        if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            if (!register(userId, path)) {
+                scannedUsers.remove(userId);
+                return;
+            }
+            try (Stream<Path> pathStream = Files.walk(path)) {
+                pathStream.forEach(created -> record(userId, created));
+            } catch (IOException exception) {
+                scannedUsers.remove(userId);
+            }
+            return;
+        }
+        record(userId, path);
+    }
+
+    private void record(long userId, Path path) {
+        Map<Path, FileState> userOwnChanges = ownChanges.get(userId);
+        FileState ownState = userOwnChanges == null ? null : userOwnChanges.get(path);
+        if (ownState != null) {
+            if (ownState.equals(FileState.of(path)))
+                return;
+            userOwnChanges.remove(path, ownState);
+        }
+        Set<String> changes = pendingChanges.computeIfAbsent(userId, ignored -> ConcurrentHashMap.newKeySet());
+        changes.add(path.getFileName().toString());
+        if (changes.size() > MAX_PENDING_CHANGES) {
+            pendingChanges.remove(userId);
+            scannedUsers.remove(userId);
+        }
+    }
+
+    private record FileState(FileTime lastModifiedTime, long size) {
+
+        private static final FileState MISSING = new FileState(null, -1);
+
+        static FileState of(Path path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                return new FileState(attributes.lastModifiedTime(), attributes.size());
+            } catch (IOException exception) {
+                return MISSING;
+            }
+        }
+
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (watchService != null)
+            watchService.close();
+    }
+
+}
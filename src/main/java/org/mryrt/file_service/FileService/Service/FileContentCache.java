@@ -0,0 +1,86 @@
+package org.mryrt.file_service.FileService.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
+import org.mryrt.file_service.FileService.Model.FileMeta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.FILE_TRANSFER_ERROR;
+
+@Service
+public class FileContentCache {
+
+    private static final String CACHE_NAME = "file-content";
+
+    private final FilePathService filePathService;
+
+    private final Cache<String, CachedContent> cache;
+
+    private final long maxEntrySize;
+
+    @Value("${file.service.cache.enabled:false}")
+    private boolean enabled;
+
+    public FileContentCache(FilePathService filePathService, MeterRegistry meterRegistry,
+                            @Value("${file.service.cache.max-size:64MB}") DataSize maxSize,
+                            @Value("${file.service.cache.max-entry-size:256KB}") DataSize maxEntrySize) {
+        this.filePathService = filePathService;
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String uuid, CachedContent cachedContent) -> cachedContent.content().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    private record CachedContent(String version, byte[] content) {
+    }
+
+    private static String getVersion(FileMeta fileMeta) {
+        return fileMeta.getContentHash() != null ? fileMeta.getContentHash() : String.valueOf(fileMeta.getUpdateAt().toEpochMilli());
+    }
+
+    private static long getStoredSize(FileMeta fileMeta) {
+        return fileMeta.getCodec() != null && fileMeta.getStoredSize() != null ? fileMeta.getStoredSize() : fileMeta.getSize();
+    }
+
+    private byte[] readUserFile(FileMeta fileMeta) {
+        try {
+            return filePathService.getUserFile(fileMeta.getDiskName(), fileMeta.getOwnerId()).getContentAsByteArray();
+        } catch (IOException exception) {
+            throw new FileProcessException(FILE_TRANSFER_ERROR, exception);
+        }
+    }
+
+    public Resource getUserFile(FileMeta fileMeta) {
+        if (!enabled || getStoredSize(fileMeta) > maxEntrySize)
+            return filePathService.getUserFile(fileMeta.getDiskName(), fileMeta.getOwnerId());
+        String version = getVersion(fileMeta);
+        CachedContent cachedContent = cache.getIfPresent(fileMeta.getUuid());
+        if (cachedContent == null || !cachedContent.version().equals(version)) {
+            cachedContent = new CachedContent(version, readUserFile(fileMeta));
+            cache.put(fileMeta.getUuid(), cachedContent);
+        }
+        return new ByteArrayResource(cachedContent.content());
+    }
+
+    public void invalidate(String uuid) {
+        cache.invalidate(uuid);
+    }
+
+    public void invalidateAll(Collection<String> uuids) {
+        cache.invalidateAll(uuids);
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.mryrt.file_service.FileService.Service;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
+import org.mryrt.file_service.FileService.Model.FileMeta;
+import org.mryrt.file_service.FileService.Model.TaskCursor;
+import org.mryrt.file_service.FileService.Repository.FileMetaRepository;
+import org.mryrt.file_service.FileService.Repository.TaskCursorRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.*;
+
+@Service
+public class FileIntegrityService {
+
+    private static final String SCRUB_CURSOR = "integrity-scrub";
+
+    private final FileMetaRepository fileMetaRepository;
+
+    private final TaskCursorRepository taskCursorRepository;
+
+    private final FilePathService filePathService;
+
+    private final StorageUsageService storageUsageService;
+
+    private final Bucket scrubBandwidth;
+
+    private final long scrubBytesPerSecond;
+
+    @Value("${file.service.integrity.scrub-batch-size:100}")
+    private int SCRUB_BATCH_SIZE;
+
+    public FileIntegrityService(FileMetaRepository fileMetaRepository, TaskCursorRepository taskCursorRepository,
+                                FilePathService filePathService, StorageUsageService storageUsageService,
+                                @Value("${file.service.integrity.scrub-rate:10MB}") DataSize scrubRate) {
+        this.fileMetaRepository = fileMetaRepository;
+        this.taskCursorRepository = taskCursorRepository;
+        this.filePathService = filePathService;
+        this.storageUsageService = storageUsageService;
+        this.scrubBytesPerSecond = scrubRate.toBytes();
+        this.scrubBandwidth = Bucket.builder()
+                .addLimit(Bandwidth.classic(scrubBytesPerSecond, Refill.greedy(scrubBytesPerSecond, Duration.ofSeconds(1))))
+                .build();
+    }
+
+    public FileMeta verify(FileMeta fileMeta) {
+        Optional<String> contentHash = filePathService.hashUserFile(fileMeta.getDiskName(), fileMeta.getCodec(), fileMeta.getOwnerId());
+        String expectedHash = fileMeta.getContentHash() != null ? fileMeta.getContentHash() : contentHash.orElse(null);
+        boolean suspiciousModified = contentHash.map(hash -> !hash.equals(expectedHash)).orElse(true);
+        if (Objects.equals(expectedHash, fileMeta.getContentHash()) && suspiciousModified == fileMeta.isSuspiciousModified())
+            return fileMeta;
+        if (suspiciousModified && !fileMeta.isSuspiciousModified())
+            FILE_INTEGRITY_MISMATCH.log(fileMeta.getName(), fileMeta.getOwnerId());
+        fileMeta.setContentHash(expectedHash);
+        fileMeta.setSuspiciousModified(suspiciousModified);
+        fileMetaRepository.updateIntegrity(fileMeta.getId(), expectedHash, suspiciousModified);
+        storageUsageService.incrementMetadataVersion(fileMeta.getOwnerId());
+        return fileMeta;
+    }
+
+    private void throttle(long bytes) throws InterruptedException {
+        while (bytes > 0) {
+            long tokens = Math.min(bytes, scrubBytesPerSecond);
+            scrubBandwidth.asBlocking().consume(tokens);
+            bytes -= tokens;
+        }
+    }
+
+    public void scrub() {
+        TaskCursor cursor = taskCursorRepository.findById(SCRUB_CURSOR).orElseGet(() -> new TaskCursor(SCRUB_CURSOR, 0));
+        List<FileMeta> filesMeta = fileMetaRepository.findAllByIdGreaterThanAndDeletedFromDiskFalseOrderByIdAsc(cursor.getPosition(), Limit.of(SCRUB_BATCH_SIZE));
+        int mismatches = 0;
+        try {
+            for (FileMeta fileMeta : filesMeta) {
+                throttle(fileMeta.getStoredSize() != null ? fileMeta.getStoredSize() : fileMeta.getSize());
+                try {
+                    if (verify(fileMeta).isSuspiciousModified())
+                        mismatches++;
+                } catch (FileProcessException exception) {
+                    FILE_SKIPPED.log(fileMeta.getName(), exception.getMessage());
+                }
+                cursor.setPosition(fileMeta.getId());
+                taskCursorRepository.save(cursor);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (filesMeta.size() < SCRUB_BATCH_SIZE) {
+            cursor.setPosition(0);
+            taskCursorRepository.save(cursor);
+        }
+        FILES_SCRUBBED.log(filesMeta.size(), mismatches);
+    }
+
+}
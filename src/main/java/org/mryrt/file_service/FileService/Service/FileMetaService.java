@@ -1,59 +1,168 @@
 package org.mryrt.file_service.FileService.Service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
+import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
 import org.mryrt.file_service.FileService.Model.FileMeta;
 import org.mryrt.file_service.FileService.Repository.FileMetaRepository;
 import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.UUID;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.FILE_NAME_CONFLICT;
+import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.FILE_SKIPPED;
 
 @Service
 @TrackExecutionTime
 @AllArgsConstructor
 public class FileMetaService {
 
+    private static final Pattern DUPLICATE_SUFFIX = Pattern.compile("^(.*)\\(([1-9]\\d{0,8})\\)$");
+
+    private static final int MAX_NAME_ATTEMPTS = 5;
+
     final
     FileMetaRepository fileMetaRepository;
 
+    final
+    StorageUsageService storageUsageService;
+
+    final
+    TransactionTemplate transactionTemplate;
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Pair<Long, List<FileMeta>> getFilesMetaPage(long userId, Pair<Instant, Integer> after, Limit limit) {
+        long metadataVersion = storageUsageService.getMetadataVersion(userId);
+        List<FileMeta> filesMeta = after == null
+                ? fileMetaRepository.findAllByOwnerIdOrderByCreateAtAscIdAsc(userId, limit)
+                : fileMetaRepository.findAllAfter(userId, after.getFirst(), after.getSecond(), limit);
+        return Pair.of(metadataVersion, filesMeta);
+    }
+
     private static String getBaseName(String filename) {
         int dotIndex = filename.lastIndexOf('.');
         return dotIndex > 0 ? filename.substring(0, dotIndex) : filename;
     }
 
-    private static String getExtension(String filename) {
+    static String getExtension(String filename) {
         int dotIndex = filename.lastIndexOf('.');
         return dotIndex > 0 ? filename.substring(dotIndex) : "";
     }
 
-    public FileMeta getFileMeta(long userId, MultipartFile file) {
-        String filename = getFilename(userId, file.getOriginalFilename());
+    private static Pair<String, Integer> splitDuplicateSuffix(String baseName) {
+        Matcher matcher = DUPLICATE_SUFFIX.matcher(baseName);
+        if (matcher.matches())
+            return Pair.of(matcher.group(1), Integer.parseInt(matcher.group(2)));
+        return Pair.of(baseName, 0);
+    }
+
+    private static String joinDuplicateSuffix(String baseName, int duplicateIndex) {
+        return duplicateIndex == 0 ? baseName : "%s(%d)".formatted(baseName, duplicateIndex);
+    }
+
+    private FileMeta getFileMeta(long userId, Pair<String, Integer> name, FileMeta draft) {
+        String extension = getExtension(draft.getName());
+        String filename = joinDuplicateSuffix(name.getFirst(), name.getSecond()) + extension;
         return FileMeta.builder()
                 .ownerId(userId)
                 .name(filename)
+                .baseName(name.getFirst())
+                .duplicateIndex(name.getSecond())
                 .uuid(getUuid(userId, filename))
-                .size(file.getSize())
-                .extension(getExtension(filename))
+                .size(draft.getSize())
+                .extension(extension)
+                .contentHash(draft.getContentHash())
+                .deduplicated(draft.isDeduplicated())
+                .codec(draft.getCodec())
+                .storedSize(draft.getStoredSize())
                 .build();
     }
 
-    private String getFilename(long userId, String filename) {
-        String receivedBaseName = getBaseName(filename);
-        String fileBaseName = receivedBaseName;
-        List<String> filenameList = fileMetaRepository.findAllByOwnerId(userId)
-                .stream()
-                .map(FileMeta::getName)
-                .map(FileMetaService::getBaseName)
+    public FileMeta createFileMeta(long userId, FileMeta draft) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    storageUsageService.lock(userId);
+                    Pair<String, Integer> name = getFilename(userId, getBaseName(draft.getName()));
+                    FileMeta fileMeta = fileMetaRepository.saveAndFlush(getFileMeta(userId, name, draft));
+                    storageUsageService.commitReservation(userId, draft.getSize());
+                    return fileMeta;
+                });
+            } catch (DataIntegrityViolationException exception) {
+                if (attempt == MAX_NAME_ATTEMPTS)
+                    throw new FileProcessException(FILE_NAME_CONFLICT, exception, draft.getName());
+            }
+        }
+    }
+
+    @Transactional
+    public List<FileMeta> createFilesMeta(long userId, List<FileMeta> drafts) {
+        storageUsageService.lock(userId);
+        List<Pair<String, Integer>> requestedNames = drafts.stream()
+                .map(draft -> splitDuplicateSuffix(getBaseName(draft.getName())))
                 .toList();
+        Set<String> baseNames = requestedNames.stream().map(Pair::getFirst).collect(Collectors.toSet());
+        Map<String, Set<Integer>> takenIndexes = new HashMap<>();
+        fileMetaRepository.findAllByOwnerIdAndBaseNameIn(userId, baseNames).forEach(fileMeta ->
+                takenIndexes.computeIfAbsent(fileMeta.getBaseName(), ignored -> new HashSet<>()).add(fileMeta.getDuplicateIndex()));
+
+        List<FileMeta> filesMeta = new ArrayList<>(drafts.size());
+        for (int index = 0; index < drafts.size(); index++) {
+            FileMeta draft = drafts.get(index);
+            Pair<String, Integer> name = requestedNames.get(index);
+            Set<Integer> taken = takenIndexes.computeIfAbsent(name.getFirst(), ignored -> new HashSet<>());
+            if (taken.contains(name.getSecond()))
+                name = Pair.of(name.getFirst(), Collections.max(taken) + 1);
+            taken.add(name.getSecond());
+            filesMeta.add(getFileMeta(userId, name, draft));
+        }
+        List<FileMeta> savedFilesMeta = fileMetaRepository.saveAllAndFlush(filesMeta);
+        storageUsageService.commitReservation(userId, savedFilesMeta.stream().mapToLong(FileMeta::getSize).sum());
+        return savedFilesMeta;
+    }
 
-        int counter = 0;
-        while (filenameList.contains(fileBaseName))
-            fileBaseName = "%s(%d)".formatted(receivedBaseName, ++counter);
+    @Transactional
+    public void deleteFilesMeta(long userId, List<Integer> ids, long releasedBytes) {
+        storageUsageService.lock(userId);
+        fileMetaRepository.deleteAllByIdInBatch(ids);
+        storageUsageService.release(userId, releasedBytes);
+    }
+
+    @Transactional
+    public void revertFileMeta(long userId, FileMeta fileMeta) {
+        storageUsageService.lock(userId);
+        fileMetaRepository.deleteById(fileMeta.getId());
+        storageUsageService.revertReservation(userId, fileMeta.getSize());
+    }
 
-        return fileBaseName + getExtension(filename);
+    @Transactional
+    public void markDeletedFromDisk(long userId, List<FileMeta> filesMeta) {
+        storageUsageService.lock(userId);
+        filesMeta.forEach(fileMeta -> fileMeta.setDeletedFromDisk(true));
+        fileMetaRepository.saveAll(filesMeta);
+        storageUsageService.release(userId, filesMeta.stream().mapToLong(FileMeta::getSize).sum());
+    }
+
+    private Pair<String, Integer> getFilename(long userId, String receivedBaseName) {
+        Pair<String, Integer> name = splitDuplicateSuffix(receivedBaseName);
+        if (!fileMetaRepository.existsByOwnerIdAndBaseNameAndDuplicateIndex(userId, name.getFirst(), name.getSecond()))
+            return name;
+        int duplicateIndex = fileMetaRepository.findMaxDuplicateIndex(userId, name.getFirst()).orElse(0) + 1;
+        return Pair.of(name.getFirst(), duplicateIndex);
     }
 
     private String getUuid(long userId, String filename) {
@@ -61,4 +170,23 @@ public class FileMetaService {
         return UUID.nameUUIDFromBytes(nameBytes).toString();
     }
 
+    @PostConstruct
+    public void alignIdSequence() {
+        fileMetaRepository.alignIdSequence();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexLegacyFilenames() {
+        fileMetaRepository.findAllByBaseNameIsNull().forEach(fileMeta -> {
+            Pair<String, Integer> name = splitDuplicateSuffix(getBaseName(fileMeta.getName()));
+            fileMeta.setBaseName(name.getFirst());
+            fileMeta.setDuplicateIndex(name.getSecond());
+            try {
+                fileMetaRepository.save(fileMeta);
+            } catch (DataIntegrityViolationException exception) {
+                FILE_SKIPPED.log(fileMeta.getName(), exception.getMessage());
+            }
+        });
+    }
+
 }
@@ -1,25 +1,36 @@
 package org.mryrt.file_service.FileService.Service;
 
+import jakarta.annotation.PostConstruct;
 import org.mryrt.file_service.Auth.Service.UserService;
 import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
-import org.mryrt.file_service.FileService.Model.FileMeta;
+import org.mryrt.file_service.FileService.Model.FileCodec;
+import org.mryrt.file_service.FileService.Model.TaskCursor;
+import org.mryrt.file_service.FileService.Repository.TaskCursorRepository;
 import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
 import org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.EOFException;
 import java.io.IOException;
-import java.lang.ref.Cleaner;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.*;
-import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.atomic.LongAdder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
 
 import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.*;
 import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.*;
@@ -28,17 +39,50 @@ import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.*;
 @TrackExecutionTime
 public class FilePathService {
 
+    private static final long TRANSFER_CHUNK_SIZE = 8L * 1024 * 1024;
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+
+    private static final String STAGING_FOLDER = ".uploads";
+
+    private static final String BLOBS_FOLDER = ".blobs";
+
+    private static final Set<String> RESERVED_FOLDERS = Set.of(STAGING_FOLDER, BLOBS_FOLDER);
+
+    private static final int SHARD_NAME_LENGTH = 2;
+
+    private static final String SHARD_NAME_PATTERN = "[0-9a-f]{%d}".formatted(SHARD_NAME_LENGTH);
+
+    private static final String LAYOUT_CURSOR = "layout-migration";
+
     private final ResourceLoader resourceLoader;
     private final UserService userService;
+    private final TaskCursorRepository taskCursorRepository;
+    private final FileChangeJournal fileChangeJournal;
     @Value("${file.service.upload-dir}")
     private String UPLOAD_DIR;
+    @Value("${file.service.layout.shard-levels:0}")
+    private int SHARD_LEVELS;
+    private volatile int migratedShardLevels;
 
-    public FilePathService(ResourceLoader resourceLoader, UserService userService) {
+    public FilePathService(ResourceLoader resourceLoader, UserService userService, TaskCursorRepository taskCursorRepository,
+                           FileChangeJournal fileChangeJournal) {
         this.resourceLoader = resourceLoader;
         this.userService = userService;
+        this.taskCursorRepository = taskCursorRepository;
+        this.fileChangeJournal = fileChangeJournal;
     }
 
-    private Path getUserFolder(long userId) {
+    @PostConstruct
+    public void loadMigratedLayout() {
+        migratedShardLevels = taskCursorRepository.findById(LAYOUT_CURSOR)
+                .map(TaskCursor::getPosition)
+                .orElse(0);
+    }
+
+    public Path getUserFolder(long userId) {
         try {
             Path folder = Paths.get(UPLOAD_DIR).resolve(String.valueOf(userId)).toAbsolutePath().normalize();
             if (!Files.isDirectory(folder)) {
@@ -61,32 +105,71 @@ public class FilePathService {
         return folder;
     }
 
-    public long getUserFolderSize(long userId) {
-        Path folder = getUserFolder(userId);
-        LongAdder folderSize = new LongAdder();
+    private Path getShardedFile(Path folder, String filename) {
+        return getShardedFile(folder, filename, SHARD_LEVELS);
+    }
 
-        try (Stream<Path> pathStream = Files.walk(folder)) {
-            pathStream.parallel().filter(Files::isRegularFile).forEach(file -> {
-                try {
-                    folderSize.add(Files.size(file));
-                } catch (IOException exception) {
-                    FILE_SKIPPED.log(file.getFileName(), exception.getMessage());
-                }
-            });
+    private Path getShardedFile(Path folder, String filename, int shardLevels) {
+        Path parent = folder;
+        for (int level = 0; level < shardLevels && filename.length() >= (level + 1) * SHARD_NAME_LENGTH; level++)
+            parent = parent.resolve(filename.substring(level * SHARD_NAME_LENGTH, (level + 1) * SHARD_NAME_LENGTH));
+        return parent.resolve(filename).normalize();
+    }
+
+    private Path resolveUserFile(Path folder, String filename) {
+        Path file = getShardedFile(folder, filename);
+        int previousShardLevels = migratedShardLevels;
+        if (previousShardLevels == SHARD_LEVELS || Files.exists(file, LinkOption.NOFOLLOW_LINKS))
+            return file;
+        Path previousFile = getShardedFile(folder, filename, previousShardLevels);
+        return Files.exists(previousFile, LinkOption.NOFOLLOW_LINKS) ? previousFile : file;
+    }
+
+    private boolean isShardFolder(Path folder, Path path) {
+        Path relativePath = folder.relativize(path);
+        if (relativePath.getNameCount() > SHARD_LEVELS || !Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))
+            return false;
+        for (Path name : relativePath)
+            if (!name.toString().matches(SHARD_NAME_PATTERN))
+                return false;
+        return true;
+    }
+
+    private Path getStagedFile(String stagingId) {
+        try {
+            Path folder = Paths.get(UPLOAD_DIR).resolve(STAGING_FOLDER).toAbsolutePath().normalize();
+            Files.createDirectories(folder);
+            return folder.resolve(stagingId + ".part").normalize();
         } catch (IOException exception) {
-            throw new FileProcessException(USER_DIRECTORY_ACCESS_ERROR, exception, userId);
-        } finally {
-            Cleaner.create().register(this, System::gc);
+            throw new FileProcessException(FILE_COPY_ERROR, exception);
         }
+    }
 
-        return folderSize.sum();
+    private Path getBlobFile(String hash) {
+        return Paths.get(UPLOAD_DIR).resolve(BLOBS_FOLDER).resolve(hash.substring(0, 2)).resolve(hash).toAbsolutePath().normalize();
     }
 
-    public void saveUserFile(MultipartFile file, String filename, long userId) {
-        Path folder = getUserFolder(userId);
-        Path destination = folder.resolve(filename).normalize();
-        try {
-            Files.copy(file.getInputStream(), destination, StandardCopyOption.REPLACE_EXISTING);
+    private long transferFrom(ReadableByteChannel source, FileChannel fileChannel, long position, long byteLimit) throws IOException {
+        long limit = position + byteLimit;
+        long transferred;
+        while (position <= limit && (transferred = fileChannel.transferFrom(source, position, Math.min(TRANSFER_CHUNK_SIZE, limit + 1 - position))) > 0)
+            position += transferred;
+        return position;
+    }
+
+    public long saveStagedFile(ReadableByteChannel source, String stagingId, long userId, long offset, long byteLimit) {
+        Path file = getStagedFile(stagingId);
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            fileChannel.truncate(offset);
+            try {
+                long written = transferFrom(source, fileChannel, offset, byteLimit) - offset;
+                if (written > byteLimit)
+                    fileChannel.truncate(offset);
+                return written;
+            } catch (IOException exception) {
+                fileChannel.truncate(offset);
+                throw exception;
+            }
         } catch (FileSystemException exception) {
             if (exception.getMessage().contains("No space left on device"))
                 throw new FileProcessException(NOT_ENOUGH_SPACE, userId, exception);
@@ -96,60 +179,191 @@ public class FilePathService {
         }
     }
 
-    public void deleteUserFile(String filename, long userId) {
+    public void moveStagedFile(String stagingId, String filename, long userId) {
+        Path folder = getUserFolder(userId);
+        Path destination = getShardedFile(folder, filename);
+        try {
+            Files.createDirectories(destination.getParent());
+            Files.move(getStagedFile(stagingId), destination, StandardCopyOption.REPLACE_EXISTING);
+            recordOwnChange(userId, folder, destination);
+        } catch (IOException exception) {
+            throw new FileProcessException(FILE_COPY_ERROR, exception);
+        }
+    }
+
+    private void recordOwnChange(long userId, Path folder, Path file) {
+        for (Path path = file; !path.equals(folder) && path.startsWith(folder); path = path.getParent())
+            fileChangeJournal.recordOwnChange(userId, path);
+    }
+
+    public static MessageDigest getContentDigest() {
+        try {
+            return MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static String hash(ReadableByteChannel channel) throws IOException {
+        MessageDigest digest = getContentDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public String hashStagedFile(String stagingId) {
+        try (FileChannel fileChannel = FileChannel.open(getStagedFile(stagingId), StandardOpenOption.READ)) {
+            return hash(fileChannel);
+        } catch (IOException exception) {
+            throw new FileProcessException(FILE_COPY_ERROR, exception);
+        }
+    }
+
+    public Optional<String> hashUserFile(String filename, FileCodec codec, long userId) {
+        Path file = resolveUserFile(getUserFolder(userId), filename);
+        try (ReadableByteChannel channel = codec == null
+                ? FileChannel.open(file, StandardOpenOption.READ)
+                : Channels.newChannel(new GZIPInputStream(Files.newInputStream(file), IO_BUFFER_SIZE))) {
+            return Optional.of(hash(channel));
+        } catch (ZipException | EOFException exception) {
+            return Optional.empty();
+        } catch (NoSuchFileException exception) {
+            throw new FileProcessException(USER_FILE_NOT_EXIST, filename, userId);
+        } catch (IOException exception) {
+            throw new FileProcessException(USER_FILE_NOT_READABLE, exception, filename, userId);
+        }
+    }
+
+    public long compressStagedFile(String stagingId) {
+        Path file = getStagedFile(stagingId);
+        Path compressedFile = getStagedFile(stagingId + FileCodec.GZIP.getSuffix());
+        try {
+            try (InputStream inputStream = Files.newInputStream(file);
+                 OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressedFile), IO_BUFFER_SIZE) {{
+                     def.setLevel(Deflater.BEST_SPEED);
+                 }}) {
+                inputStream.transferTo(outputStream);
+            }
+            long compressedSize = Files.size(compressedFile);
+            if (compressedSize >= Files.size(file)) {
+                Files.delete(compressedFile);
+                return -1;
+            }
+            Files.move(compressedFile, file, StandardCopyOption.REPLACE_EXISTING);
+            return compressedSize;
+        } catch (IOException exception) {
+            deleteQuietly(compressedFile);
+            throw new FileProcessException(FILE_COPY_ERROR, exception);
+        }
+    }
+
+    public boolean blobExists(String hash) {
+        return Files.isRegularFile(getBlobFile(hash));
+    }
+
+    public void moveStagedFileToBlob(String stagingId, String hash) {
+        Path blob = getBlobFile(hash);
+        try {
+            Files.createDirectories(blob.getParent());
+            Files.move(getStagedFile(stagingId), blob, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException exception) {
+            throw new FileProcessException(FILE_COPY_ERROR, exception);
+        }
+    }
+
+    public void linkBlob(String hash, String filename, long userId) {
         Path folder = getUserFolder(userId);
-        Path destination = folder.resolve(filename).normalize();
+        Path destination = getShardedFile(folder, filename);
+        try {
+            Files.createDirectories(destination.getParent());
+            Files.deleteIfExists(destination);
+            Files.createLink(destination, getBlobFile(hash));
+            recordOwnChange(userId, folder, destination);
+        } catch (IOException | UnsupportedOperationException exception) {
+            throw new FileProcessException(FILE_COPY_ERROR, exception);
+        }
+    }
+
+    public void deleteBlob(String hash) {
+        deleteQuietly(getBlobFile(hash));
+    }
+
+    public void deleteStagedFile(String stagingId) {
+        deleteQuietly(getStagedFile(stagingId));
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exception) {
+            FILE_SKIPPED.log(file.getFileName(), exception.getMessage());
+        }
+    }
+
+    public void deleteUserFile(String filename, long userId) {
+        Path destination = resolveUserFile(getUserFolder(userId), filename);
         try {
             if (!Files.deleteIfExists(destination))
                 throw new FileProcessException(USER_FILE_NOT_EXIST, userId, filename);
+            fileChangeJournal.recordOwnChange(userId, destination);
         } catch (IOException exception) {
             throw new FileProcessException(USER_DIRECTORY_ACCESS_ERROR, userId);
         }
     }
 
-    public List<String> syncingUserFiles(List<String> filenameList, long userId) {
+    public List<String> syncingUserFiles(Collection<String> filenames, long userId) {
         Path folder = getUserFolder(userId);
-        List<String> existingFiles = Collections.synchronizedList(new ArrayList<>());
-
         try (Stream<Path> pathStream = Files.walk(folder)) {
-            pathStream
-                    .parallel()
-                    .filter(path -> !path.equals(folder))
-                    .forEach(file -> {
-                        String filename = file.getFileName().toString();
-                        try {
-                            if (!filenameList.contains(filename)) {
-                                Files.deleteIfExists(file);
-                                NOT_USER_FILE.log(filename, userId);
-                                return;
-                            }
-                            if (Files.isDirectory(file)) {
-                                Files.deleteIfExists(file);
-                                FILE_IS_DIRECTORY.log(filename, userId);
-                                return;
-                            }
-                            if (!Files.isReadable(file)) {
-                                Files.deleteIfExists(file);
-                                FILE_NOT_READABLE.log(filename, userId);
-                                return;
-                            }
-                            existingFiles.add(filename);
-                        } catch (IOException exception) {
-                            FILE_SKIPPED.log(filename, exception.getMessage());
-                        }
-                    });
+            return syncingUserFiles(pathStream.filter(path -> !path.equals(folder) && !isShardFolder(folder, path)), new HashSet<>(filenames), userId);
         } catch (IOException exception) {
             throw new FileProcessException(USER_DIRECTORY_ACCESS_ERROR, exception, userId);
-        } finally {
-            Cleaner.create().register(this, System::gc);
         }
+    }
 
+    public List<String> syncingUserFiles(Collection<String> filenames, Collection<String> changedFilenames, long userId) {
+        Path folder = getUserFolder(userId);
+        Stream<Path> pathStream = changedFilenames.stream()
+                .map(filename -> resolveUserFile(folder, filename))
+                .filter(path -> path.startsWith(folder) && !isShardFolder(folder, path) && Files.exists(path, LinkOption.NOFOLLOW_LINKS));
+        return syncingUserFiles(pathStream, new HashSet<>(filenames), userId);
+    }
+
+    private List<String> syncingUserFiles(Stream<Path> pathStream, Set<String> filenames, long userId) {
+        List<String> existingFiles = Collections.synchronizedList(new ArrayList<>());
+        pathStream
+                .parallel()
+                .forEach(file -> {
+                    String filename = file.getFileName().toString();
+                    try {
+                        if (!filenames.contains(filename)) {
+                            Files.deleteIfExists(file);
+                            NOT_USER_FILE.log(filename, userId);
+                            return;
+                        }
+                        if (Files.isDirectory(file)) {
+                            Files.deleteIfExists(file);
+                            FILE_IS_DIRECTORY.log(filename, userId);
+                            return;
+                        }
+                        if (!Files.isReadable(file)) {
+                            Files.deleteIfExists(file);
+                            FILE_NOT_READABLE.log(filename, userId);
+                            return;
+                        }
+                        existingFiles.add(filename);
+                    } catch (IOException exception) {
+                        FILE_SKIPPED.log(filename, exception.getMessage());
+                    }
+                });
         return existingFiles;
     }
 
     public Resource getUserFile(String filename, long userId) {
-        Path folder = getUserFolder(userId);
-        Path destination = folder.resolve(filename).normalize();
+        Path destination = resolveUserFile(getUserFolder(userId), filename);
         Resource resource = resourceLoader.getResource("file:%s".formatted(destination.toAbsolutePath().toString()));
         if (!resource.exists())
             throw new FileProcessException(USER_FILE_NOT_EXIST, userId, filename);
@@ -167,6 +381,8 @@ public class FilePathService {
                     .forEach(directory -> {
                         try {
                             String filename = directory.getFileName().toString();
+                            if (RESERVED_FOLDERS.contains(filename))
+                                return;
                             if (!Files.isDirectory(directory)) {
                                 Files.deleteIfExists(directory);
                                 BASE_DIRECTORY_INVALID_FILE_REMOVED.log(filename);
@@ -182,17 +398,60 @@ public class FilePathService {
         }
     }
 
-    public List<FileMeta> checkUserFilesWasSuspiciousModified(List<FileMeta> fileMetas, long userId) {
-        Path folder = getUserFolder(userId);
-        return fileMetas.stream().peek(fileMeta -> {
-            try {
-                Path file = folder.resolve(fileMeta.getDiskName()).normalize();
-                if (Duration.between(fileMeta.getUpdateAt(), Files.getLastModifiedTime(file).toInstant()).toMillis() > 1000)
-                    fileMeta.setSuspiciousModified(true);
-            } catch (IOException ignored) {
-                FILE_NOT_READABLE.log(fileMeta.getName(), String.valueOf(userId));
+    public long migrateUserFolders() {
+        int shardLevels = SHARD_LEVELS;
+        boolean migrated = taskCursorRepository.findById(LAYOUT_CURSOR)
+                .map(cursor -> cursor.getPosition() == shardLevels)
+                .orElse(false);
+        if (migrated) {
+            migratedShardLevels = shardLevels;
+            return 0;
+        }
+        Path folder = getBaseFolder().toAbsolutePath();
+        AtomicLong skipped = new AtomicLong();
+        long migratedFiles;
+        try (Stream<Path> pathStream = Files.list(folder)) {
+            migratedFiles = pathStream
+                    .filter(directory -> Files.isDirectory(directory) && !RESERVED_FOLDERS.contains(directory.getFileName().toString()))
+                    .mapToLong(directory -> migrateUserFolder(directory, skipped))
+                    .sum();
+        } catch (IOException exception) {
+            FILE_SKIPPED.log(folder, exception.getMessage());
+            return 0;
+        }
+        if (skipped.get() == 0) {
+            taskCursorRepository.save(new TaskCursor(LAYOUT_CURSOR, shardLevels));
+            migratedShardLevels = shardLevels;
+        }
+        return migratedFiles;
+    }
+
+    private long migrateUserFolder(Path folder, AtomicLong skipped) {
+        try (Stream<Path> pathStream = Files.walk(folder)) {
+            List<Path> misplacedFiles = pathStream
+                    .filter(file -> Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS))
+                    .filter(file -> !file.equals(getShardedFile(folder, file.getFileName().toString())))
+                    .toList();
+            long migrated = 0;
+            for (Path file : misplacedFiles) {
+                Path destination = getShardedFile(folder, file.getFileName().toString());
+                if (Files.exists(destination, LinkOption.NOFOLLOW_LINKS))
+                    continue;
+                try {
+                    Files.createDirectories(destination.getParent());
+                    Files.move(file, destination, StandardCopyOption.ATOMIC_MOVE);
+                    migrated++;
+                } catch (IOException exception) {
+                    skipped.incrementAndGet();
+                    FILE_SKIPPED.log(file.getFileName(), exception.getMessage());
+                }
             }
-        }).toList();
+            return migrated;
+        } catch (IOException exception) {
+            skipped.incrementAndGet();
+            FILE_SKIPPED.log(folder.getFileName(), exception.getMessage());
+            return 0;
+        }
     }
 
 }
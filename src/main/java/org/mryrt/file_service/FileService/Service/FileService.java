@@ -1,14 +1,22 @@
 package org.mryrt.file_service.FileService.Service;
 
+import lombok.Data;
 import org.mryrt.file_service.Auth.Service.UserService;
 import org.mryrt.file_service.FileService.Annotation.FileSync;
 import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
+import org.mryrt.file_service.FileService.Model.FileArchiveRequest;
+import org.mryrt.file_service.FileService.Model.FileCodec;
+import org.mryrt.file_service.FileService.Model.FileDeleteResultDTO;
 import org.mryrt.file_service.FileService.Model.FileMeta;
 import org.mryrt.file_service.FileService.Model.FileMetaDTO;
+import org.mryrt.file_service.FileService.Model.FileMetaPage;
+import org.mryrt.file_service.FileService.Model.FileUploadResultDTO;
 import org.mryrt.file_service.FileService.Repository.FileMetaRepository;
 import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.util.Pair;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -17,8 +25,21 @@ import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.*;
 
@@ -26,6 +47,10 @@ import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.*;
 @TrackExecutionTime
 public class FileService {
 
+    private static final String UUID_PATTERN = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
+
+    private static final String DIGEST_HEADER = "Digest";
+
     final
     FileMetaRepository fileMetaRepository;
     final
@@ -34,16 +59,41 @@ public class FileService {
     FilePathService filePathService;
     final
     FileMetaService fileMetaService;
+    final
+    StorageUsageService storageUsageService;
+    final
+    FileBlobService fileBlobService;
+    final
+    ExecutorService fileIoExecutor;
+    final
+    FileContentCache fileContentCache;
+    final
+    FileIntegrityService fileIntegrityService;
     @Value("${file.service.max-file-size}")
     private DataSize MAX_FILE_SIZE;
     @Value("${file.service.max-folder-size}")
     private DataSize MAX_FOLDER_SIZE;
+    @Value("${file.service.batch.max-files:1000}")
+    private int MAX_BATCH_FILES;
+    @Value("${file.service.listing.default-limit:100}")
+    private int DEFAULT_PAGE_LIMIT;
+    @Value("${file.service.listing.max-limit:1000}")
+    private int MAX_PAGE_LIMIT;
+    @Value("${file.service.compression.extensions:}")
+    private Set<String> COMPRESSED_EXTENSIONS;
 
-    public FileService(FileMetaRepository fileMetaRepository, UserService userService, FilePathService filePathService, FileMetaService fileMetaService) {
+    public FileService(FileMetaRepository fileMetaRepository, UserService userService, FilePathService filePathService, FileMetaService fileMetaService,
+                       StorageUsageService storageUsageService, FileBlobService fileBlobService, ExecutorService fileIoExecutor,
+                       FileContentCache fileContentCache, FileIntegrityService fileIntegrityService) {
         this.fileMetaRepository = fileMetaRepository;
         this.userService = userService;
         this.filePathService = filePathService;
         this.fileMetaService = fileMetaService;
+        this.storageUsageService = storageUsageService;
+        this.fileBlobService = fileBlobService;
+        this.fileIoExecutor = fileIoExecutor;
+        this.fileContentCache = fileContentCache;
+        this.fileIntegrityService = fileIntegrityService;
     }
 
     private MultipartFile getFile(MultipartFile[] files) {
@@ -60,12 +110,37 @@ public class FileService {
     private void assertFileSize(long fileSize, long userId) {
         if (fileSize > MAX_FILE_SIZE.toBytes())
             throw new FileProcessException(FILE_SIZE_TOO_LARGE);
-        if (fileSize + filePathService.getUserFolderSize(userId) > MAX_FOLDER_SIZE.toBytes())
+        if (fileSize + storageUsageService.getUsedBytes(userId) > MAX_FOLDER_SIZE.toBytes())
             throw new FileProcessException(NOT_ENOUGH_SPACE, userId);
     }
 
+    public void reserveSpace(long fileSize, long userId) {
+        if (fileSize > MAX_FILE_SIZE.toBytes())
+            throw new FileProcessException(FILE_SIZE_TOO_LARGE);
+        if (!storageUsageService.reserve(userId, fileSize, MAX_FOLDER_SIZE.toBytes()))
+            throw new FileProcessException(NOT_ENOUGH_SPACE, userId);
+    }
+
+    public void assertFilename(String filename) {
+        if (filename == null || filename.isBlank() || filename.equals(".") || filename.equals("..")
+                || filename.contains("/") || filename.contains("\\"))
+            throw new FileProcessException(INVALID_FILE_NAME);
+    }
+
+    private long getUploadLimit(long userId) {
+        long folderSpace = MAX_FOLDER_SIZE.toBytes() - storageUsageService.getUsedBytes(userId);
+        return Math.max(0, Math.min(MAX_FILE_SIZE.toBytes(), folderSpace));
+    }
+
+    private void assertStreamedFileSize(long fileSize, long uploadLimit, long userId) {
+        if (fileSize == 0)
+            throw new FileProcessException(FILE_IS_EMPTY);
+        if (fileSize > uploadLimit)
+            throw new FileProcessException(fileSize > MAX_FILE_SIZE.toBytes() ? FILE_SIZE_TOO_LARGE : NOT_ENOUGH_SPACE, userId);
+    }
+
     private void assertUuid(String uuid) {
-        if (!uuid.matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}"))
+        if (!uuid.matches(UUID_PATTERN))
             throw new FileProcessException(INVALID_FILE_UUID);
     }
 
@@ -80,52 +155,398 @@ public class FileService {
                 .orElseThrow(() -> new FileProcessException(UUID_NOT_EXIST, uuid, userId));
     }
 
-    private HttpHeaders getHttpHeaders(String filename) {
-        String encodedFilename = UriUtils.encode(filename, StandardCharsets.UTF_8);
+    private FileCodec getCodec(String filename) {
+        return COMPRESSED_EXTENSIONS.contains(FileMetaService.getExtension(filename).toLowerCase()) ? FileCodec.GZIP : null;
+    }
+
+    private HttpHeaders getHttpHeaders(FileMeta fileMeta) {
+        String encodedFilename = UriUtils.encode(fileMeta.getName(), StandardCharsets.UTF_8);
         HttpHeaders headers = new HttpHeaders();
         headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"%s\"".formatted(encodedFilename));
         headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        if (fileMeta.getCodec() != null)
+            headers.add(HttpHeaders.CONTENT_ENCODING, fileMeta.getCodec().getContentEncoding());
+        headers.setETag("\"%s\"".formatted(fileMeta.getContentHash() != null
+                ? fileMeta.getContentHash()
+                : fileMeta.getUuid() + "-" + fileMeta.getUpdateAt().toEpochMilli()));
+        headers.setLastModified(fileMeta.getUpdateAt());
+        if (fileMeta.getContentHash() != null)
+            headers.add(DIGEST_HEADER, "sha-256=" + Base64.getEncoder().encodeToString(HexFormat.of().parseHex(fileMeta.getContentHash())));
         return headers;
     }
 
+    private String stageFile(MultipartFile file, MessageDigest digest, long userId) {
+        String stagingId = UUID.randomUUID().toString();
+        try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+            filePathService.saveStagedFile(Channels.newChannel(inputStream), stagingId, userId, 0, file.getSize());
+            return stagingId;
+        } catch (IOException exception) {
+            filePathService.deleteStagedFile(stagingId);
+            throw new FileProcessException(FILE_COPY_ERROR, exception);
+        }
+    }
+
+    private FileMetaDTO storeUploadedFile(String stagingId, String filename, long fileSize, String contentHash, long userId) {
+        try {
+            return storeStagedFile(stagingId, filename, fileSize, contentHash, userId);
+        } catch (RuntimeException exception) {
+            filePathService.deleteStagedFile(stagingId);
+            throw exception;
+        }
+    }
+
+    private FileMeta prepareStagedFile(String stagingId, String filename, long fileSize, String contentHash, long userId) {
+        if (contentHash == null)
+            contentHash = filePathService.hashStagedFile(stagingId);
+        FileCodec codec = getCodec(filename);
+        long storedSize = codec == null ? -1 : filePathService.compressStagedFile(stagingId);
+        if (storedSize < 0) {
+            codec = null;
+            storedSize = fileSize;
+        }
+        return FileMeta.builder()
+                .ownerId(userId)
+                .name(filename)
+                .size(fileSize)
+                .contentHash(contentHash)
+                .deduplicated(fileBlobService.isEnabled())
+                .codec(codec)
+                .storedSize(storedSize)
+                .build();
+    }
+
+
+    private void placeStagedFile(String stagingId, FileMeta fileMeta, long userId) {
+        if (fileMeta.isDeduplicated())
+            fileBlobService.storeStagedFile(stagingId, fileMeta.getBlobKey(), fileMeta.getStoredSize(), fileMeta.getDiskName(), userId);
+        else
+            filePathService.moveStagedFile(stagingId, fileMeta.getDiskName(), userId);
+        fileContentCache.invalidate(fileMeta.getUuid());
+    }
+
+    private FileMetaDTO storeStagedFile(String stagingId, String filename, long fileSize, String contentHash, long userId) {
+        reserveSpace(fileSize, userId);
+        try {
+            return storeReservedStagedFile(stagingId, filename, fileSize, contentHash, userId);
+        } catch (RuntimeException exception) {
+            storageUsageService.cancelReservation(userId, fileSize);
+            throw exception;
+        }
+    }
+
+    public FileMetaDTO storeReservedStagedFile(String stagingId, String filename, long fileSize, long userId) {
+        return storeReservedStagedFile(stagingId, filename, fileSize, null, userId);
+    }
+
+    private FileMetaDTO storeReservedStagedFile(String stagingId, String filename, long fileSize, String contentHash, long userId) {
+        FileMeta fileMeta = fileMetaService.createFileMeta(userId, prepareStagedFile(stagingId, filename, fileSize, contentHash, userId));
+        try {
+            placeStagedFile(stagingId, fileMeta, userId);
+        } catch (RuntimeException exception) {
+            fileMetaService.revertFileMeta(userId, fileMeta);
+            throw exception;
+        } finally {
+            storageUsageService.incrementMetadataVersion(userId);
+        }
+        return new FileMetaDTO(fileMeta);
+    }
+
+    private void assertBatchFile(MultipartFile file) {
+        assertFilename(file.getOriginalFilename());
+        assertFileNotEmpty(file);
+        if (file.getSize() > MAX_FILE_SIZE.toBytes())
+            throw new FileProcessException(FILE_SIZE_TOO_LARGE);
+    }
+
+    private static List<BatchFile> getPending(List<BatchFile> batch) {
+        return batch.stream().filter(BatchFile::isPending).toList();
+    }
+
+    private void runConcurrently(List<BatchFile> batch, Consumer<BatchFile> action) {
+        CompletableFuture.allOf(batch.stream()
+                .map(batchFile -> CompletableFuture.runAsync(() -> batchFile.run(() -> action.accept(batchFile)), fileIoExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void createBatchFilesMeta(List<BatchFile> batch, long userId) {
+        if (batch.isEmpty())
+            return;
+        try {
+            List<FileMeta> filesMeta = fileMetaService.createFilesMeta(userId, batch.stream().map(BatchFile::getFileMeta).toList());
+            for (int index = 0; index < batch.size(); index++)
+                batch.get(index).setFileMeta(filesMeta.get(index));
+        } catch (DataIntegrityViolationException exception) {
+            batch.forEach(batchFile -> batchFile.run(() -> batchFile.setFileMeta(fileMetaService.createFileMeta(userId, batchFile.getFileMeta()))));
+        }
+    }
+
+    private static boolean isCommitted(BatchFile batchFile) {
+        return batchFile.getFileMeta() != null && batchFile.getFileMeta().getId() != null;
+    }
+
+    private void discardFailedBatchFiles(List<BatchFile> batch, long userId) {
+        List<BatchFile> reserved = batch.stream().filter(BatchFile::isReserved).toList();
+        List<BatchFile> failed = reserved.stream().filter(batchFile -> !batchFile.isPending()).toList();
+        failed.forEach(batchFile -> {
+            if (batchFile.getStagingId() != null)
+                filePathService.deleteStagedFile(batchFile.getStagingId());
+        });
+        List<BatchFile> failedCommitted = failed.stream().filter(FileService::isCommitted).toList();
+        if (!failedCommitted.isEmpty())
+            fileMetaService.deleteFilesMeta(userId,
+                    failedCommitted.stream().map(batchFile -> batchFile.getFileMeta().getId()).toList(),
+                    failedCommitted.stream().mapToLong(batchFile -> batchFile.getFile().getSize()).sum());
+        long uncommittedSize = reserved.stream()
+                .filter(batchFile -> !isCommitted(batchFile))
+                .mapToLong(batchFile -> batchFile.getFile().getSize())
+                .sum();
+        if (uncommittedSize > 0)
+            storageUsageService.cancelReservation(userId, uncommittedSize);
+    }
+
+    public List<FileUploadResultDTO> uploadFiles(MultipartFile[] files) {
+        if (files.length == 0)
+            throw new FileProcessException(FILE_IS_EMPTY);
+        if (files.length > MAX_BATCH_FILES)
+            throw new FileProcessException(BATCH_FILES_LIMIT_EXCEEDED, MAX_BATCH_FILES);
+        long userId = userService.getAuthUserId();
+        List<BatchFile> batch = Arrays.stream(files).map(BatchFile::new).toList();
+        batch.forEach(batchFile -> batchFile.run(() -> assertBatchFile(batchFile.getFile())));
+
+        List<BatchFile> accepted = getPending(batch);
+        long totalSize = accepted.stream().mapToLong(batchFile -> batchFile.getFile().getSize()).sum();
+        if (!accepted.isEmpty() && !storageUsageService.reserve(userId, totalSize, MAX_FOLDER_SIZE.toBytes()))
+            throw new FileProcessException(NOT_ENOUGH_SPACE, userId);
+        accepted.forEach(batchFile -> batchFile.setReserved(true));
+
+        try {
+            runConcurrently(accepted, batchFile -> {
+                MessageDigest digest = FilePathService.getContentDigest();
+                batchFile.setStagingId(stageFile(batchFile.getFile(), digest, userId));
+                batchFile.setFileMeta(prepareStagedFile(batchFile.getStagingId(), batchFile.getFile().getOriginalFilename(),
+                        batchFile.getFile().getSize(), HexFormat.of().formatHex(digest.digest()), userId));
+            });
+            createBatchFilesMeta(getPending(batch), userId);
+            runConcurrently(getPending(batch), batchFile -> placeStagedFile(batchFile.getStagingId(), batchFile.getFileMeta(), userId));
+        } finally {
+            discardFailedBatchFiles(batch, userId);
+            storageUsageService.incrementMetadataVersion(userId);
+        }
+        return batch.stream().map(BatchFile::getResult).toList();
+    }
+
     public FileMetaDTO uploadFile(MultipartFile[] files) {
         MultipartFile file = getFile(files);
         assertFileNotEmpty(file);
         long userId = userService.getAuthUserId();
         assertFileSize(file.getSize(), userId);
-        FileMeta fileMeta = fileMetaService.getFileMeta(userId, file);
-        filePathService.saveUserFile(file, fileMeta.getDiskName(), userId);
-        return new FileMetaDTO(fileMetaRepository.save(fileMeta));
+        MessageDigest digest = FilePathService.getContentDigest();
+        String stagingId = stageFile(file, digest, userId);
+        return storeUploadedFile(stagingId, file.getOriginalFilename(), file.getSize(), HexFormat.of().formatHex(digest.digest()), userId);
+    }
+
+    public FileMetaDTO uploadFile(String filename, InputStream inputStream, long contentLength) {
+        assertFilename(filename);
+        long userId = userService.getAuthUserId();
+        if (contentLength > 0)
+            assertFileSize(contentLength, userId);
+        long uploadLimit = getUploadLimit(userId);
+        String stagingId = UUID.randomUUID().toString();
+        MessageDigest digest = FilePathService.getContentDigest();
+        long fileSize = filePathService.saveStagedFile(Channels.newChannel(new DigestInputStream(inputStream, digest)), stagingId, userId, 0, uploadLimit);
+        try {
+            assertStreamedFileSize(fileSize, uploadLimit, userId);
+        } catch (FileProcessException exception) {
+            filePathService.deleteStagedFile(stagingId);
+            throw exception;
+        }
+        return storeUploadedFile(stagingId, filename, fileSize, HexFormat.of().formatHex(digest.digest()), userId);
+    }
+
+    private static String encodeCursor(FileMeta fileMeta) {
+        String cursor = "%s|%d".formatted(fileMeta.getCreateAt(), fileMeta.getId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Pair<Instant, Integer> decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Malformed cursor");
+            return Pair.of(Instant.parse(parts[0]), Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException exception) {
+            throw new FileProcessException(INVALID_CURSOR);
+        }
+    }
+
+    @FileSync
+    public FileMetaPage getFiles(Integer limit, String after) {
+        boolean unbounded = limit == null && after == null;
+        int pageLimit = limit == null ? DEFAULT_PAGE_LIMIT : limit;
+        if (pageLimit < 1 || pageLimit > MAX_PAGE_LIMIT)
+            throw new FileProcessException(INVALID_PAGE_LIMIT, MAX_PAGE_LIMIT);
+        long userId = userService.getAuthUserId();
+        Pair<Instant, Integer> cursor = after == null ? null : decodeCursor(after);
+        Pair<Long, List<FileMeta>> versionedPage = fileMetaService.getFilesMetaPage(userId, cursor, unbounded ? Limit.unlimited() : Limit.of(pageLimit + 1));
+        List<FileMeta> filesMeta = versionedPage.getSecond();
+        String nextCursor = unbounded ? null : "";
+        if (!unbounded && filesMeta.size() > pageLimit) {
+            filesMeta = filesMeta.subList(0, pageLimit);
+            nextCursor = encodeCursor(filesMeta.get(pageLimit - 1));
+        }
+        List<FileMetaDTO> page = filesMeta.stream().map(FileMetaDTO::new).toList();
+        return new FileMetaPage(page, nextCursor, "\"%d-%d\"".formatted(userId, versionedPage.getFirst()));
     }
 
     @FileSync
-    public List<FileMetaDTO> getFiles() {
+    public Pair<Supplier<Resource>, HttpHeaders> getFile(String uuid) {
         long userId = userService.getAuthUserId();
-        return filePathService
-                .checkUserFilesWasSuspiciousModified(fileMetaRepository.findAllByOwnerId(userId), userId)
-                .stream()
-                .map(FileMetaDTO::new)
-                .toList();
+        FileMeta fileMeta = getFileMeta(uuid, userId);
+        assertFileOnDisk(fileMeta);
+        return Pair.of(() -> fileContentCache.getUserFile(fileMeta), getHttpHeaders(fileMeta));
     }
 
     @FileSync
-    public Pair<Resource, HttpHeaders> getFile(String uuid) {
+    public FileMetaDTO verifyFile(String uuid) {
         long userId = userService.getAuthUserId();
         FileMeta fileMeta = getFileMeta(uuid, userId);
         assertFileOnDisk(fileMeta);
-        return Pair.of(filePathService.getUserFile(fileMeta.getDiskName(), userId), getHttpHeaders(fileMeta.getName()));
+        return new FileMetaDTO(fileIntegrityService.verify(fileMeta));
+    }
+
+    @FileSync
+    public List<FileMeta> getArchiveFiles(FileArchiveRequest archiveRequest) {
+        long userId = userService.getAuthUserId();
+        if (archiveRequest.isAll())
+            return fileMetaRepository.findAllByOwnerId(userId).stream().filter(fileMeta -> !fileMeta.isDeletedFromDisk()).toList();
+        List<String> uuids = archiveRequest.getUuids();
+        if (uuids == null || uuids.isEmpty())
+            throw new FileProcessException(INVALID_FILE_UUID);
+        if (uuids.size() > MAX_BATCH_FILES)
+            throw new FileProcessException(BATCH_FILES_LIMIT_EXCEEDED, MAX_BATCH_FILES);
+        Set<String> requestedUuids = new LinkedHashSet<>(uuids);
+        requestedUuids.forEach(uuid -> assertUuid(String.valueOf(uuid)));
+        Map<String, FileMeta> filesMeta = fileMetaRepository.findAllByOwnerIdAndUuidIn(userId, requestedUuids).stream()
+                .collect(Collectors.toMap(FileMeta::getUuid, fileMeta -> fileMeta));
+        return requestedUuids.stream().map(uuid -> {
+            FileMeta fileMeta = filesMeta.get(uuid);
+            if (fileMeta == null)
+                throw new FileProcessException(UUID_NOT_EXIST, uuid, userId);
+            assertFileOnDisk(fileMeta);
+            return fileMeta;
+        }).toList();
     }
 
     @FileSync
     public FileMetaDTO deleteFile(String uuid) {
         long userId = userService.getAuthUserId();
         FileMeta fileMeta = getFileMeta(uuid, userId);
-        if (!fileMeta.isDeletedFromDisk()) {
+        boolean storedOnDisk = !fileMeta.isDeletedFromDisk();
+        if (storedOnDisk) {
             filePathService.deleteUserFile(fileMeta.getDiskName(), userId);
         }
+        fileContentCache.invalidate(fileMeta.getUuid());
         fileMeta.setDeletedFromDisk(false);
-        fileMetaRepository.delete(fileMeta);
+        fileMetaService.deleteFilesMeta(userId, List.of(fileMeta.getId()), storedOnDisk ? fileMeta.getSize() : 0);
+        storageUsageService.incrementMetadataVersion(userId);
+        if (storedOnDisk && fileMeta.isDeduplicated())
+            fileBlobService.release(fileMeta.getBlobKey());
         return new FileMetaDTO(fileMeta);
     }
 
+    private FileProcessException deleteStoredFile(FileMeta fileMeta, long userId) {
+        try {
+            filePathService.deleteUserFile(fileMeta.getDiskName(), userId);
+            return null;
+        } catch (FileProcessException exception) {
+            return exception.getErrorMessage() == USER_FILE_NOT_EXIST ? null : exception;
+        }
+    }
+
+    @FileSync
+    public List<FileDeleteResultDTO> deleteFiles(List<String> uuids) {
+        if (uuids.isEmpty())
+            throw new FileProcessException(INVALID_FILE_UUID);
+        if (uuids.size() > MAX_BATCH_FILES)
+            throw new FileProcessException(BATCH_FILES_LIMIT_EXCEEDED, MAX_BATCH_FILES);
+        long userId = userService.getAuthUserId();
+        Set<String> requestedUuids = new LinkedHashSet<>(uuids);
+        Map<String, FileDeleteResultDTO> results = new ConcurrentHashMap<>();
+        List<String> validUuids = requestedUuids.stream().filter(uuid -> {
+            boolean valid = uuid != null && uuid.matches(UUID_PATTERN);
+            if (!valid)
+                results.put(String.valueOf(uuid), new FileDeleteResultDTO(uuid, new FileProcessException(INVALID_FILE_UUID)));
+            return valid;
+        }).toList();
+
+        List<FileMeta> filesMeta = validUuids.isEmpty() ? List.of() : fileMetaRepository.findAllByOwnerIdAndUuidIn(userId, validUuids);
+        Set<String> ownedUuids = filesMeta.stream().map(FileMeta::getUuid).collect(Collectors.toSet());
+        validUuids.stream()
+                .filter(uuid -> !ownedUuids.contains(uuid))
+                .forEach(uuid -> results.put(uuid, new FileDeleteResultDTO(uuid, new FileProcessException(UUID_NOT_EXIST, uuid, userId))));
+
+        List<FileMeta> deletedFilesMeta = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture.allOf(filesMeta.stream().map(fileMeta -> CompletableFuture.runAsync(() -> {
+            FileProcessException error = fileMeta.isDeletedFromDisk() ? null : deleteStoredFile(fileMeta, userId);
+            if (error != null) {
+                results.put(fileMeta.getUuid(), new FileDeleteResultDTO(fileMeta.getUuid(), error));
+                return;
+            }
+            deletedFilesMeta.add(fileMeta);
+        }, fileIoExecutor)).toArray(CompletableFuture[]::new)).join();
+
+        fileContentCache.invalidateAll(deletedFilesMeta.stream().map(FileMeta::getUuid).toList());
+        List<FileMeta> storedFilesMeta = deletedFilesMeta.stream().filter(fileMeta -> !fileMeta.isDeletedFromDisk()).toList();
+        if (!deletedFilesMeta.isEmpty()) {
+            fileMetaService.deleteFilesMeta(userId, deletedFilesMeta.stream().map(FileMeta::getId).toList(),
+                    storedFilesMeta.stream().mapToLong(FileMeta::getSize).sum());
+            storageUsageService.incrementMetadataVersion(userId);
+        }
+        storedFilesMeta.stream()
+                .filter(FileMeta::isDeduplicated)
+                .forEach(fileMeta -> fileBlobService.release(fileMeta.getBlobKey()));
+        deletedFilesMeta.forEach(fileMeta -> {
+            fileMeta.setDeletedFromDisk(false);
+            results.put(fileMeta.getUuid(), new FileDeleteResultDTO(fileMeta.getUuid(), new FileMetaDTO(fileMeta)));
+        });
+        return requestedUuids.stream().map(uuid -> results.get(String.valueOf(uuid))).toList();
+    }
+
+    @Data
+    private static class BatchFile {
+
+        private final MultipartFile file;
+
+        private String stagingId;
+
+        private FileMeta fileMeta;
+
+        private boolean reserved;
+
+        private FileProcessException error;
+
+        private boolean isPending() {
+            return error == null;
+        }
+
+        private void run(Runnable action) {
+            if (!isPending())
+                return;
+            try {
+                action.run();
+            } catch (FileProcessException exception) {
+                error = exception;
+            } catch (RuntimeException exception) {
+                error = new FileProcessException(FILE_COPY_ERROR, exception);
+            }
+        }
+
+        private FileUploadResultDTO getResult() {
+            return isPending()
+                    ? new FileUploadResultDTO(file.getOriginalFilename(), new FileMetaDTO(fileMeta))
+                    : new FileUploadResultDTO(file.getOriginalFilename(), error);
+        }
+
+    }
+
 }
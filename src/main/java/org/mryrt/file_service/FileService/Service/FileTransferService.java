@@ -0,0 +1,247 @@
+package org.mryrt.file_service.FileService.Service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.FILE_TRANSFER_ERROR;
+import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.RANGE_NOT_SATISFIABLE;
+
+@Service
+public class FileTransferService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+    private static final String BYTES_UNIT = "bytes";
+    private static final String CRLF = "\r\n";
+    private static final int DECODE_BUFFER_SIZE = 64 * 1024;
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+    private static final String DIGEST_HEADER = "Digest";
+    private static final Set<String> CONDITIONAL_HEADERS = Set.of(HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CONTENT_ENCODING);
+
+    private static boolean isHeadRequest(HttpServletRequest request) {
+        return HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    private static boolean isSendfileSupported(HttpServletRequest request, long count) {
+        return count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+    }
+
+    private static String getContentRange(long start, long end, long length) {
+        return "%s %d-%d/%d".formatted(BYTES_UNIT, start, end, length);
+    }
+
+    private static boolean isEncodingAccepted(HttpServletRequest request, String contentEncoding) {
+        Enumeration<String> acceptEncodings = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (acceptEncodings != null && acceptEncodings.hasMoreElements()) {
+            for (String token : acceptEncodings.nextElement().split(",")) {
+                String[] parts = token.trim().split(";");
+                String coding = parts[0].trim();
+                boolean rejected = parts.length > 1 && parts[1].trim().matches("q=0(\\.0{0,3})?");
+                if (!rejected && (coding.equalsIgnoreCase(contentEncoding) || coding.equals("*")))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isIfRangeMatched(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null)
+            return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+            return !ifRange.startsWith("W/") && ifRange.equals(etag);
+        try {
+            return lastModified / 1000 == request.getDateHeader(HttpHeaders.IF_RANGE) / 1000;
+        } catch (IllegalArgumentException exception) {
+            return false;
+        }
+    }
+
+    private List<HttpRange> getRanges(HttpServletRequest request, HttpServletResponse response, String etag, long lastModified, long length) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !isIfRangeMatched(request, etag, lastModified))
+            return Collections.emptyList();
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            long total = 0;
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(length);
+                if (start >= length)
+                    throw new IllegalArgumentException("Range start exceeds the file length");
+                total += range.getRangeEnd(length) - start + 1;
+            }
+            if (total > length && ranges.size() > 1)
+                throw new IllegalArgumentException("Ranges exceed the file length");
+            return ranges;
+        } catch (IllegalArgumentException exception) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "%s */%d".formatted(BYTES_UNIT, length));
+            throw new FileProcessException(RANGE_NOT_SATISFIABLE, length);
+        }
+    }
+
+    private void writeRegion(FileChannel fileChannel, long position, long count, OutputStream outputStream) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, TRANSFER_BUFFER_SIZE));
+        while (count > 0) {
+            buffer.clear().limit((int) Math.min(count, buffer.capacity()));
+            int read = fileChannel.read(buffer, position);
+            if (read <= 0)
+                break;
+            outputStream.write(buffer.array(), 0, read);
+            position += read;
+            count -= read;
+        }
+    }
+
+    private void writeRegion(Resource resource, ReadableByteChannel source, long position, long count, OutputStream outputStream) throws IOException {
+        if (resource instanceof ByteArrayResource cachedResource)
+            outputStream.write(cachedResource.getByteArray(), (int) position, (int) count);
+        else
+            writeRegion((FileChannel) source, position, count, outputStream);
+    }
+
+    private void writeSingleRegion(Resource resource, long start, long count, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(count);
+        if (isHeadRequest(request))
+            return;
+        if (resource instanceof ByteArrayResource cachedResource) {
+            response.getOutputStream().write(cachedResource.getByteArray(), (int) start, (int) count);
+            return;
+        }
+        Path path = resource.getFile().toPath();
+        if (isSendfileSupported(request, count)) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            writeRegion(fileChannel, start, count, response.getOutputStream());
+        }
+    }
+
+    private void writeMultipleRegions(Resource resource, List<HttpRange> ranges, String contentType, long length, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.setContentType("multipart/byteranges; boundary=%s".formatted(boundary));
+        if (isHeadRequest(request))
+            return;
+        OutputStream outputStream = response.getOutputStream();
+        try (ReadableByteChannel source = resource.readableChannel()) {
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                String partHeaders = CRLF + "--" + boundary + CRLF
+                        + HttpHeaders.CONTENT_TYPE + ": " + contentType + CRLF
+                        + HttpHeaders.CONTENT_RANGE + ": " + getContentRange(start, end, length) + CRLF + CRLF;
+                outputStream.write(partHeaders.getBytes(StandardCharsets.US_ASCII));
+                writeRegion(resource, source, start, end - start + 1, outputStream);
+            }
+            outputStream.write((CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static String getRepresentationETag(String etag, String contentEncoding) {
+        if (etag == null || contentEncoding == null || !etag.endsWith("\""))
+            return etag;
+        return etag.substring(0, etag.length() - 1) + "-" + contentEncoding + "\"";
+    }
+
+    private static void copyHeaders(HttpHeaders headers, HttpServletResponse response, boolean passThrough) {
+        headers.forEach((name, values) -> {
+            if (!CONDITIONAL_HEADERS.contains(name) && !(passThrough && DIGEST_HEADER.equals(name)))
+                values.forEach(value -> response.addHeader(name, value));
+        });
+    }
+
+    private void transferEncodedFile(Resource resource, long length, boolean passThrough, String contentEncoding, HttpHeaders headers,
+                                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        copyHeaders(headers, response, passThrough);
+        response.setStatus(HttpStatus.OK.value());
+        if (passThrough) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+            writeSingleRegion(resource, 0, length, request, response);
+            return;
+        }
+        if (isHeadRequest(request))
+            return;
+        try (InputStream inputStream = new GZIPInputStream(resource.getInputStream(), DECODE_BUFFER_SIZE)) {
+            inputStream.transferTo(response.getOutputStream());
+        }
+    }
+
+    public void transferFile(Supplier<Resource> content, HttpHeaders headers, HttpServletRequest request, HttpServletResponse response) {
+        try {
+            long lastModified = headers.getLastModified();
+            String contentEncoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+            boolean passThrough = contentEncoding != null && isEncodingAccepted(request, contentEncoding);
+            String etag = getRepresentationETag(headers.getETag(), passThrough ? contentEncoding : null);
+            if (contentEncoding != null)
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (etag != null)
+                response.setHeader(HttpHeaders.ETAG, etag);
+            if (lastModified >= 0)
+                response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified))
+                return;
+            Resource resource = content.get();
+            long length = resource.contentLength();
+            if (contentEncoding != null) {
+                transferEncodedFile(resource, length, passThrough, contentEncoding, headers, request, response);
+                return;
+            }
+            List<HttpRange> ranges = getRanges(request, response, etag, lastModified, length);
+            copyHeaders(headers, response, false);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES_UNIT);
+            if (ranges.isEmpty()) {
+                response.setStatus(HttpStatus.OK.value());
+                writeSingleRegion(resource, 0, length, request, response);
+                return;
+            }
+
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            if (ranges.size() == 1) {
+                long start = ranges.get(0).getRangeStart(length);
+                long end = ranges.get(0).getRangeEnd(length);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, getContentRange(start, end, length));
+                writeSingleRegion(resource, start, end - start + 1, request, response);
+                return;
+            }
+
+            MediaType contentType = headers.getContentType();
+            String partContentType = contentType == null ? MediaType.APPLICATION_OCTET_STREAM_VALUE : contentType.toString();
+            writeMultipleRegions(resource, ranges, partContentType, length, request, response);
+        } catch (IOException exception) {
+            throw new FileProcessException(FILE_TRANSFER_ERROR, exception);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.mryrt.file_service.FileService.Service;
+
+import lombok.AllArgsConstructor;
+import org.mryrt.file_service.FileService.Model.StorageUsage;
+import org.mryrt.file_service.FileService.Repository.StorageUsageRepository;
+import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.STORAGE_USAGE_RECONCILED;
+
+@Service
+@TrackExecutionTime
+@AllArgsConstructor
+public class StorageUsageService {
+
+    final
+    StorageUsageRepository storageUsageRepository;
+
+    private Optional<StorageUsage> getStorageUsage(long userId) {
+        Optional<StorageUsage> storageUsage = storageUsageRepository.findById(userId);
+        if (storageUsage.isEmpty()) {
+            storageUsageRepository.initialize(userId);
+            storageUsage = storageUsageRepository.findById(userId);
+        }
+        return storageUsage;
+    }
+
+    public long getUsedBytes(long userId) {
+        return getStorageUsage(userId).map(usage -> usage.getUsedBytes() + usage.getReservedBytes()).orElse(0L);
+    }
+
+    public long getMetadataVersion(long userId) {
+        return storageUsageRepository.findById(userId).map(StorageUsage::getMetadataVersion).orElse(0L);
+    }
+
+    public void incrementMetadataVersion(long userId) {
+        if (storageUsageRepository.incrementMetadataVersion(userId) > 0)
+            return;
+        storageUsageRepository.initialize(userId);
+        storageUsageRepository.incrementMetadataVersion(userId);
+    }
+
+    public boolean reserve(long userId, long size, long limit) {
+        if (storageUsageRepository.reserve(userId, size, limit) > 0)
+            return true;
+        if (storageUsageRepository.existsById(userId))
+            return false;
+        storageUsageRepository.initialize(userId);
+        return storageUsageRepository.reserve(userId, size, limit) > 0;
+    }
+
+    public void lock(long userId) {
+        storageUsageRepository.lock(userId);
+    }
+
+    public void commitReservation(long userId, long size) {
+        storageUsageRepository.commitReservation(userId, size);
+    }
+
+    public void revertReservation(long userId, long size) {
+        storageUsageRepository.revertReservation(userId, size);
+    }
+
+    public void cancelReservation(long userId, long size) {
+        storageUsageRepository.cancelReservation(userId, size);
+    }
+
+    public void release(long userId, long size) {
+        storageUsageRepository.release(userId, size);
+    }
+
+    @Transactional
+    public void reconcile() {
+        storageUsageRepository.lockAll();
+        STORAGE_USAGE_RECONCILED.log(storageUsageRepository.reconcile());
+    }
+
+}
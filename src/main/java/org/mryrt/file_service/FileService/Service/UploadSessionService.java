@@ -0,0 +1,164 @@
+package org.mryrt.file_service.FileService.Service;
+
+import org.mryrt.file_service.Auth.Service.UserService;
+import org.mryrt.file_service.FileService.Exceptions.FileProcessException;
+import org.mryrt.file_service.FileService.Model.FileMetaDTO;
+import org.mryrt.file_service.FileService.Model.UploadSession;
+import org.mryrt.file_service.FileService.Model.UploadSessionDTO;
+import org.mryrt.file_service.FileService.Model.UploadSessionRequest;
+import org.mryrt.file_service.FileService.Repository.UploadSessionRepository;
+import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.*;
+import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.UPLOAD_SESSION_EXPIRED;
+
+@Service
+@TrackExecutionTime
+public class UploadSessionService {
+
+    // Serializes chunk writes within this instance only: all chunks of a session must reach the same instance.
+    // Completion, deletion and expiry claim the session row, so its reservation is settled exactly once.
+    private final Set<String> activeSessions = ConcurrentHashMap.newKeySet();
+
+    final
+    UploadSessionRepository uploadSessionRepository;
+    final
+    UserService userService;
+    final
+    FileService fileService;
+    final
+    FilePathService filePathService;
+    final
+    StorageUsageService storageUsageService;
+    @Value("${file.service.upload-session.ttl}")
+    private Duration SESSION_TTL;
+
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository, UserService userService, FileService fileService,
+                                FilePathService filePathService, StorageUsageService storageUsageService) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.userService = userService;
+        this.fileService = fileService;
+        this.filePathService = filePathService;
+        this.storageUsageService = storageUsageService;
+    }
+
+    private UploadSession getSession(String uuid, long userId) {
+        return uploadSessionRepository.findByUuidAndOwnerId(uuid, userId)
+                .orElseThrow(() -> new FileProcessException(UPLOAD_SESSION_NOT_EXIST, uuid, userId));
+    }
+
+    private <T> T withSessionLock(String uuid, Supplier<T> action) {
+        if (!activeSessions.add(uuid))
+            throw new FileProcessException(UPLOAD_SESSION_LOCKED, uuid);
+        try {
+            return action.get();
+        } finally {
+            activeSessions.remove(uuid);
+        }
+    }
+
+    public UploadSessionDTO createSession(UploadSessionRequest request) {
+        fileService.assertFilename(request.getName());
+        if (request.getSize() <= 0)
+            throw new FileProcessException(FILE_IS_EMPTY);
+        long userId = userService.getAuthUserId();
+        fileService.reserveSpace(request.getSize(), userId);
+        UploadSession uploadSession = UploadSession.builder()
+                .uuid(UUID.randomUUID().toString())
+                .ownerId(userId)
+                .name(request.getName())
+                .size(request.getSize())
+                .uploadOffset(0L)
+                .expiresAt(Instant.now().plus(SESSION_TTL))
+                .build();
+        try {
+            return new UploadSessionDTO(uploadSessionRepository.save(uploadSession));
+        } catch (RuntimeException exception) {
+            storageUsageService.cancelReservation(userId, request.getSize());
+            throw exception;
+        }
+    }
+
+    public UploadSessionDTO getSession(String uuid) {
+        long userId = userService.getAuthUserId();
+        return new UploadSessionDTO(getSession(uuid, userId));
+    }
+
+    public UploadSessionDTO uploadChunk(String uuid, long offset, InputStream inputStream) {
+        long userId = userService.getAuthUserId();
+        return withSessionLock(uuid, () -> {
+            UploadSession uploadSession = getSession(uuid, userId);
+            if (offset != uploadSession.getUploadOffset())
+                throw new FileProcessException(UPLOAD_OFFSET_MISMATCH, offset, uploadSession.getUploadOffset());
+            long byteLimit = uploadSession.getSize() - offset;
+            long written = filePathService.saveStagedFile(Channels.newChannel(inputStream), uuid, userId, offset, byteLimit);
+            if (written > byteLimit)
+                throw new FileProcessException(UPLOAD_SIZE_EXCEEDED, uploadSession.getSize());
+            Instant now = Instant.now();
+            if (uploadSessionRepository.updateOffset(uploadSession.getId(), offset, offset + written, now.plus(SESSION_TTL), now) == 0)
+                throw new FileProcessException(UPLOAD_SESSION_LOCKED, uuid);
+            uploadSession.setUploadOffset(offset + written);
+            uploadSession.setExpiresAt(now.plus(SESSION_TTL));
+            return new UploadSessionDTO(uploadSession);
+        });
+    }
+
+    public FileMetaDTO completeSession(String uuid) {
+        long userId = userService.getAuthUserId();
+        return withSessionLock(uuid, () -> {
+            UploadSession uploadSession = getSession(uuid, userId);
+            if (!uploadSession.getUploadOffset().equals(uploadSession.getSize()))
+                throw new FileProcessException(UPLOAD_SESSION_INCOMPLETE, uuid, uploadSession.getUploadOffset(), uploadSession.getSize());
+            if (uploadSessionRepository.remove(uploadSession.getId()) == 0)
+                throw new FileProcessException(UPLOAD_SESSION_LOCKED, uuid);
+            try {
+                return fileService.storeReservedStagedFile(uuid, uploadSession.getName(), uploadSession.getSize(), userId);
+            } catch (RuntimeException exception) {
+                uploadSession.setId(null);
+                uploadSessionRepository.save(uploadSession);
+                throw exception;
+            }
+        });
+    }
+
+    public UploadSessionDTO deleteSession(String uuid) {
+        long userId = userService.getAuthUserId();
+        return withSessionLock(uuid, () -> {
+            UploadSession uploadSession = getSession(uuid, userId);
+            if (uploadSessionRepository.remove(uploadSession.getId()) == 0)
+                throw new FileProcessException(UPLOAD_SESSION_NOT_EXIST, uuid, userId);
+            filePathService.deleteStagedFile(uuid);
+            storageUsageService.cancelReservation(userId, uploadSession.getSize());
+            return new UploadSessionDTO(uploadSession);
+        });
+    }
+
+    public void removeExpiredSessions() {
+        Instant now = Instant.now();
+        uploadSessionRepository.findAllByExpiresAtBefore(now).forEach(uploadSession -> {
+            if (!activeSessions.add(uploadSession.getUuid()))
+                return;
+            try {
+                if (uploadSessionRepository.removeExpired(uploadSession.getId(), now) == 0)
+                    return;
+                filePathService.deleteStagedFile(uploadSession.getUuid());
+                storageUsageService.cancelReservation(uploadSession.getOwnerId(), uploadSession.getSize());
+                UPLOAD_SESSION_EXPIRED.log(uploadSession.getUuid(), uploadSession.getOwnerId());
+            } finally {
+                activeSessions.remove(uploadSession.getUuid());
+            }
+        });
+    }
+
+}
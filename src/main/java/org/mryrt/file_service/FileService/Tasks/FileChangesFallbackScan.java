@@ -0,0 +1,24 @@
+package org.mryrt.file_service.FileService.Tasks;
+
+import org.mryrt.file_service.FileService.Service.FileChangeJournal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "tasks.file-sync-fallback.enabled", havingValue = "true")
+public class FileChangesFallbackScan {
+
+    final
+    FileChangeJournal fileChangeJournal;
+
+    public FileChangesFallbackScan(FileChangeJournal fileChangeJournal) {
+        this.fileChangeJournal = fileChangeJournal;
+    }
+
+    @Scheduled(fixedRateString = "${tasks.file-sync-fallback.frequency:3600000}", initialDelayString = "${tasks.file-sync-fallback.frequency:3600000}")
+    public void requestFullScan() {
+        fileChangeJournal.requestFullScan();
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.mryrt.file_service.FileService.Tasks;
+
+import jakarta.annotation.PreDestroy;
+import org.mryrt.file_service.FileService.Service.FileIntegrityService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Component
+@ConditionalOnProperty(name = "tasks.integrity-scrub.enabled", havingValue = "true")
+public class FileIntegrityScrub {
+
+    final
+    FileIntegrityService fileIntegrityService;
+
+    private final ExecutorService scrubExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("integrity-scrub-"));
+
+    private Future<?> scrubRun = CompletableFuture.completedFuture(null);
+
+    public FileIntegrityScrub(FileIntegrityService fileIntegrityService) {
+        this.fileIntegrityService = fileIntegrityService;
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.integrity-scrub.frequency:60000}", initialDelayString = "${tasks.integrity-scrub.frequency:60000}")
+    public synchronized void scrubFiles() {
+        if (scrubRun.isDone())
+            scrubRun = scrubExecutor.submit(fileIntegrityService::scrub);
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        scrubExecutor.shutdownNow();
+    }
+
+}
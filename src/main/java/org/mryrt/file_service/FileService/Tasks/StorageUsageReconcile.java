@@ -0,0 +1,24 @@
+package org.mryrt.file_service.FileService.Tasks;
+
+import org.mryrt.file_service.FileService.Service.StorageUsageService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "tasks.storage-usage-reconcile.enabled", havingValue = "true")
+public class StorageUsageReconcile {
+
+    final
+    StorageUsageService storageUsageService;
+
+    public StorageUsageReconcile(StorageUsageService storageUsageService) {
+        this.storageUsageService = storageUsageService;
+    }
+
+    @Scheduled(fixedRateString = "${tasks.storage-usage-reconcile.frequency:3600000}")
+    public void reconcileUsage() {
+        storageUsageService.reconcile();
+    }
+
+}
@@ -0,0 +1,24 @@
+package org.mryrt.file_service.FileService.Tasks;
+
+import org.mryrt.file_service.FileService.Service.UploadSessionService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "tasks.upload-session-cleanup.enabled", havingValue = "true")
+public class UploadSessionsCleanup {
+
+    final
+    UploadSessionService uploadSessionService;
+
+    public UploadSessionsCleanup(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    @Scheduled(fixedRateString = "${tasks.upload-session-cleanup.frequency:3600000}")
+    public void removeExpiredSessions() {
+        uploadSessionService.removeExpiredSessions();
+    }
+
+}
@@ -0,0 +1,26 @@
+package org.mryrt.file_service.FileService.Tasks;
+
+import org.mryrt.file_service.FileService.Service.FilePathService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import static org.mryrt.file_service.Utility.Message.Files.FilesLogMessage.USER_FILES_MIGRATED;
+
+@Component
+@ConditionalOnProperty(name = "tasks.layout-migration.enabled", havingValue = "true")
+public class UserFilesLayoutMigration {
+
+    final
+    FilePathService filePathService;
+
+    public UserFilesLayoutMigration(FilePathService filePathService) {
+        this.filePathService = filePathService;
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.layout-migration.frequency:86400000}")
+    public void migrateFiles() {
+        USER_FILES_MIGRATED.log(filePathService.migrateUserFolders());
+    }
+
+}
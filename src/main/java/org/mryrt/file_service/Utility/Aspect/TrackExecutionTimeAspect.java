@@ -1,35 +1,83 @@
 package org.mryrt.file_service.Utility.Aspect;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.mryrt.file_service.Utility.Annotation.TrackExecutionTime;
 import org.mryrt.file_service.Utility.Message.Global.GlobalLogMessage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Aspect
 @Component
 @ConditionalOnProperty(name = "monitoring.track-execution-time.enabled", havingValue = "true")
 public class TrackExecutionTimeAspect {
 
+    private static final String EXECUTION_TIMER = "method.execution";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, Map<Method, Timer>> timers = new ConcurrentHashMap<>();
+
+    private final long logThresholdNanos;
+
+    public TrackExecutionTimeAspect(MeterRegistry meterRegistry,
+                                    @Value("${monitoring.track-execution-time.log-threshold:500ms}") Duration logThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.logThresholdNanos = logThreshold.toNanos();
+    }
+
     @Around("@annotation(ignoredTrackExecutionTime) || @within(ignoredTrackExecutionTime)")
     public Object measureAndLogExecutionTime(ProceedingJoinPoint joinPoint, TrackExecutionTime ignoredTrackExecutionTime) throws Throwable {
 
         long startNanos = System.nanoTime();
-        Object result = joinPoint.proceed();
-        long durationNanos = System.nanoTime() - startNanos;
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long durationNanos = System.nanoTime() - startNanos;
+            recordExecutionMetrics(joinPoint.getThis(), joinPoint.getSignature(), durationNanos);
+        }
+    }
 
-        logExecutionMetrics(joinPoint.getSignature(), durationNanos);
+    private Class<?> getUserType(Class<?> proxyClass, Class<?> declaringType) {
+        Class<?> userClass = ClassUtils.getUserClass(proxyClass);
+        if (!Proxy.isProxyClass(userClass))
+            return userClass;
+        return ClassUtils.getAllInterfacesForClassAsSet(userClass).stream()
+                .filter(type -> AnnotationUtils.isAnnotationDeclaredLocally(TrackExecutionTime.class, type))
+                .filter(declaringType::isAssignableFrom)
+                .findFirst()
+                .orElse(declaringType);
+    }
 
-        return result;
+    private Timer getTimer(Object proxy, MethodSignature methodSignature) {
+        Class<?> proxyClass = proxy == null ? methodSignature.getDeclaringType() : proxy.getClass();
+        return timers.computeIfAbsent(proxyClass, ignored -> new ConcurrentHashMap<>())
+                .computeIfAbsent(methodSignature.getMethod(), method -> Timer.builder(EXECUTION_TIMER)
+                        .tag("class", getUserType(proxyClass, methodSignature.getDeclaringType()).getSimpleName())
+                        .tag("method", method.getName())
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry));
     }
 
-    private void logExecutionMetrics(Signature methodSignature, long durationNanos) {
-        GlobalLogMessage.EXECUTION_TIME.log(methodSignature.toShortString(), formatDuration(durationNanos));
+    private void recordExecutionMetrics(Object proxy, Signature signature, long durationNanos) {
+        if (signature instanceof MethodSignature methodSignature)
+            getTimer(proxy, methodSignature).record(Duration.ofNanos(durationNanos));
+        if (durationNanos >= logThresholdNanos)
+            GlobalLogMessage.EXECUTION_TIME.log(signature.toShortString(), formatDuration(durationNanos));
     }
 
     private String formatDuration(long nanos) {
@@ -50,4 +98,4 @@ public class TrackExecutionTimeAspect {
         return String.format("%d ns", duration.toNanos());
     }
 
-}
\ No newline at end of file
+}
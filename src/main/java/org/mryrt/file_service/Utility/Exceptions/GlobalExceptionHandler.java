@@ -1,5 +1,6 @@
 package org.mryrt.file_service.Utility.Exceptions;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -40,4 +41,14 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(ex.getErrorMessage().getHttpStatus()).body(errors);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        errors.put(ex.getErrorMessage().getErrorField(), ex.getMessage());
+        errors.put("timestamp", LocalDateTime.now().toString());
+        return ResponseEntity.status(ex.getErrorMessage().getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errors);
+    }
+
 }
@@ -12,7 +12,7 @@ public class RateLimitedException extends RuntimeException {
     public RateLimitedException(ErrorMessage errorMessage, Object... args) {
         super(errorMessage.getFormattedMessage(args));
         this.errorMessage = errorMessage;
-        GlobalLogMessage.GLOBAL_ERROR_OCCURRED.log(errorMessage.getFormattedMessage(args));
+        GlobalLogMessage.GLOBAL_ERROR_OCCURRED.log(getMessage());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package org.mryrt.file_service.Utility.Exceptions;
+
+import lombok.Getter;
+import org.mryrt.file_service.Utility.Message.ErrorMessage;
+import org.mryrt.file_service.Utility.Message.Global.GlobalLogMessage;
+
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final ErrorMessage errorMessage;
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(ErrorMessage errorMessage, long retryAfterSeconds) {
+        super(errorMessage.getFormattedMessage(retryAfterSeconds));
+        this.errorMessage = errorMessage;
+        this.retryAfterSeconds = retryAfterSeconds;
+        GlobalLogMessage.GLOBAL_ERROR_OCCURRED.log(getMessage());
+    }
+
+}
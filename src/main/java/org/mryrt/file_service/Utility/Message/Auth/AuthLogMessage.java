@@ -12,28 +12,28 @@ import org.slf4j.Logger;
 @Slf4j
 public enum AuthLogMessage implements LogMessage {
 
-    GENERATING_TOKEN(InternalLogLevel.INFO, "Generating authentication token for user '%s'."),
-    //    TOKEN_GENERATED_SUCCESSFULLY(LogLevel.INFO, "Authentication token successfully generated for user '%s'."),
-//    TOKEN_EXPIRED(LogLevel.DEBUG, "The token for user '%s' has expired and needs to be refreshed."),
-//    TOKEN_VALIDATION_FAILED(LogLevel.DEBUG, "Token validation failed for user '%s': %s."),
+    GENERATING_TOKEN(InternalLogLevel.INFO, "Generating authentication token for user '{}'."),
+    //    TOKEN_GENERATED_SUCCESSFULLY(LogLevel.INFO, "Authentication token successfully generated for user '{}'."),
+//    TOKEN_EXPIRED(LogLevel.DEBUG, "The token for user '{}' has expired and needs to be refreshed."),
+//    TOKEN_VALIDATION_FAILED(LogLevel.DEBUG, "Token validation failed for user '{}': {}."),
 //
-//    FILE_IS_NOT_READABLE(LogLevel.DEBUG, "File '%s' is not readable and has been removed from the disk."),
-//    FILE_IS_DIRECTORY(LogLevel.DEBUG, "The path '%s' points to a directory instead of a file and has been removed from the disk."),
-//    FILE_NOT_FOUND_ON_DISK(LogLevel.DEBUG, "File '%s' was not found on the disk and has been removed from the database."),
-//    NOT_USER_FILE(LogLevel.DEBUG, "File '%s' does not belong to the user and has been removed from the disk."),
-//    FILE_SKIPPED(LogLevel.DEBUG, "File '%s' was skipped due to: %s."),
-//    FILE_EXTENSIONS_MISMATCH(LogLevel.WARN, "Security warning for file '%s': The MIME type extension does not match the file name extension."),
-//    FILE_DELETED_FROM_DISK(LogLevel.DEBUG, "File '%s' has been successfully deleted from the disk."),
-//    FILE_DELETED_FROM_DATABASE(LogLevel.DEBUG, "File '%s' has been successfully deleted from the database."),
+//    FILE_IS_NOT_READABLE(LogLevel.DEBUG, "File '{}' is not readable and has been removed from the disk."),
+//    FILE_IS_DIRECTORY(LogLevel.DEBUG, "The path '{}' points to a directory instead of a file and has been removed from the disk."),
+//    FILE_NOT_FOUND_ON_DISK(LogLevel.DEBUG, "File '{}' was not found on the disk and has been removed from the database."),
+//    NOT_USER_FILE(LogLevel.DEBUG, "File '{}' does not belong to the user and has been removed from the disk."),
+//    FILE_SKIPPED(LogLevel.DEBUG, "File '{}' was skipped due to: {}."),
+//    FILE_EXTENSIONS_MISMATCH(LogLevel.WARN, "Security warning for file '{}': The MIME type extension does not match the file name extension."),
+//    FILE_DELETED_FROM_DISK(LogLevel.DEBUG, "File '{}' has been successfully deleted from the disk."),
+//    FILE_DELETED_FROM_DATABASE(LogLevel.DEBUG, "File '{}' has been successfully deleted from the database."),
 //
-    USER_LOGGED_IN(InternalLogLevel.INFO, "User '%s' has successfully logged in."),
-//    INVALID_LOGIN_ATTEMPT(LogLevel.DEBUG, "Invalid login attempt for user '%s': %s."),
-//    USER_ACCOUNT_LOCKED(LogLevel.WARN, "User account '%s' has been locked due to multiple failed login attempts."),
-//    SECURITY_CONTEXT_INITIALIZED(LogLevel.DEBUG, "Security context initialized for user '%s'."),
-
-    AUTH_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "Auth service exception occurred with cause: '%s'."),
-    VALIDATION_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "Validation exception occurred with cause: '%s'."),
-    JWT_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "Jwt service exception occurred with cause '%s'.");
+    USER_LOGGED_IN(InternalLogLevel.DEBUG, "User '{}' has successfully logged in."),
+//    INVALID_LOGIN_ATTEMPT(LogLevel.DEBUG, "Invalid login attempt for user '{}': {}."),
+//    USER_ACCOUNT_LOCKED(LogLevel.WARN, "User account '{}' has been locked due to multiple failed login attempts."),
+//    SECURITY_CONTEXT_INITIALIZED(LogLevel.DEBUG, "Security context initialized for user '{}'."),
+
+    AUTH_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "Auth service exception occurred with cause: '{}'."),
+    VALIDATION_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "Validation exception occurred with cause: '{}'."),
+    JWT_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "Jwt service exception occurred with cause '{}'.");
 
     private final InternalLogLevel logLevel;
 
@@ -9,13 +9,25 @@ import org.springframework.http.HttpStatus;
 @AllArgsConstructor
 public enum FilesErrorMessage implements ErrorMessage {
 
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "after", "The pagination cursor is invalid. Use the value of the X-Next-Cursor header from a previous page."),
+    INVALID_PAGE_LIMIT(HttpStatus.BAD_REQUEST, "limit", "The page limit must be between 1 and %d."),
     INVALID_FILE_UUID(HttpStatus.BAD_REQUEST, "uuid", "Invalid UUID format. The UUID must follow the pattern: XXXXXXXX-XXXX-XXXX-XXXX-XXXXXXXXXXXX."),
     FILES_LIMIT_EXCEEDED(HttpStatus.BAD_REQUEST, "file", "The maximum number of files has been reached. Only one file is permitted per operation."),
+    BATCH_FILES_LIMIT_EXCEEDED(HttpStatus.BAD_REQUEST, "file", "The batch contains too many files. At most %d files are permitted per operation."),
     FILE_SIZE_TOO_LARGE(HttpStatus.BAD_REQUEST, "file", "The file size exceeds the allowed limit."),
     FILE_IS_EMPTY(HttpStatus.BAD_REQUEST, "file", "The uploaded file is empty. Please provide a valid non-empty file."),
+    FILE_NAME_CONFLICT(HttpStatus.CONFLICT, "file", "Could not allocate a unique name for the file '%s'. Please try again."),
+    INVALID_FILE_NAME(HttpStatus.BAD_REQUEST, "file", "The file name is invalid. It must not be blank or contain path separators."),
     UUID_NOT_EXIST(HttpStatus.NOT_FOUND, "uuid", "The UUID '%s' does not exist in the directory of user with ID '%d'."),
+    UPLOAD_SESSION_NOT_EXIST(HttpStatus.NOT_FOUND, "session", "The upload session '%s' does not exist for user with ID '%d'."),
+    UPLOAD_SESSION_LOCKED(HttpStatus.CONFLICT, "session", "The upload session '%s' is being written by another request. Please try again later."),
+    UPLOAD_SESSION_INCOMPLETE(HttpStatus.CONFLICT, "session", "The upload session '%s' has received %d of %d bytes and cannot be completed yet."),
+    UPLOAD_OFFSET_MISMATCH(HttpStatus.CONFLICT, "offset", "The chunk offset %d does not match the current upload offset %d."),
+    UPLOAD_SIZE_EXCEEDED(HttpStatus.BAD_REQUEST, "file", "The chunk exceeds the declared upload size of %d bytes."),
     USER_FILE_NOT_EXIST(HttpStatus.NOT_FOUND, "file", "The file '%s' for user with ID '%d' was not found on the disk."),
     FILE_COPY_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "file", "An error occurred while copying the file. Please try again later."),
+    FILE_TRANSFER_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "file", "An error occurred while transferring the file. Please try again later."),
+    RANGE_NOT_SATISFIABLE(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, "range", "The requested range is not satisfiable for a file of %d bytes."),
     NOT_ENOUGH_SPACE(HttpStatus.INTERNAL_SERVER_ERROR, "file", "Insufficient space available in the directory of user with ID '%d'."),
     USER_FILE_NOT_READABLE(HttpStatus.INTERNAL_SERVER_ERROR, "file", "The file '%s' for user with ID '%d' is not readable. Ensure the file exists and has proper permissions."),
     USER_DIRECTORY_NOT_READABLE(HttpStatus.INTERNAL_SERVER_ERROR, "directory", "The directory for user with ID '%d' is not readable. Check permissions or contact support."),
@@ -12,18 +12,27 @@ import org.slf4j.Logger;
 @Slf4j
 public enum FilesLogMessage implements LogMessage {
 
-    FILE_IS_DIRECTORY(InternalLogLevel.DEBUG, "The file '%s' is a directory and has been deleted from the user's with id '%s' directory."),
-    FILE_NOT_FOUND_ON_DISK(InternalLogLevel.WARN, "The file '%s' was not found in users with id '%s' directory and has been removed from the database."),
-    FILE_SKIPPED(InternalLogLevel.WARN, "The file '%s' was skipped due to the following reason: %s."),
-    FILE_NOT_READABLE(InternalLogLevel.DEBUG, "The file '%s' is not readable and has been deleted from the user's with id '%s' directory."),
+    FILE_IS_DIRECTORY(InternalLogLevel.DEBUG, "The file '{}' is a directory and has been deleted from the user's with id '{}' directory."),
+    FILE_NOT_FOUND_ON_DISK(InternalLogLevel.WARN, "The file '{}' was not found in users with id '{}' directory and has been removed from the database."),
+    FILE_SKIPPED(InternalLogLevel.WARN, "The file '{}' was skipped due to the following reason: {}."),
+    FILE_NOT_READABLE(InternalLogLevel.DEBUG, "The file '{}' is not readable and has been deleted from the user's with id '{}' directory."),
+    FILE_INTEGRITY_MISMATCH(InternalLogLevel.WARN, "The content of the file '{}' in users with id '{}' directory does not match its stored checksum."),
 
-    NOT_USER_FILE(InternalLogLevel.DEBUG, "The file '%s' does not belong to the user with id '%s' and has been deleted from the disk."),
+    NOT_USER_FILE(InternalLogLevel.DEBUG, "The file '{}' does not belong to the user with id '{}' and has been deleted from the disk."),
 
-    FILE_INTERNAL_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "File service exception occurred: '%s', cause: '%s'."),
-    FILE_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "File service exception with cause: '%s'."),
+    FILE_INTERNAL_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "File service exception occurred: '{}', cause: '{}'."),
+    FILE_EXCEPTION_OCCURRED(InternalLogLevel.DEBUG, "File service exception with cause: '{}'."),
 
-    BASE_DIRECTORY_INVALID_FILE_REMOVED(InternalLogLevel.DEBUG, "Invalid file '%s' was found in the base directory and has been removed from the disk."),
-    NONEXISTENT_USER_DIRECTORY_REMOVED(InternalLogLevel.DEBUG, "User with id '%s' was not found in database and his directory has been removed from the disk.");
+    USER_DIRECTORY_WATCH_FAILED(InternalLogLevel.WARN, "The directory of user with id '{}' could not be watched, falling back to full scans: {}."),
+    USER_DIRECTORY_WATCH_LIMIT_REACHED(InternalLogLevel.WARN, "The directory of user with id '{}' would exceed the limit of {} watched directories, falling back to full scans."),
+
+    USER_FILES_MIGRATED(InternalLogLevel.DEBUG, "{} user files have been moved to the configured directory layout."),
+    FILES_SCRUBBED(InternalLogLevel.DEBUG, "{} files have been verified against their checksums, {} mismatches found."),
+    STORAGE_USAGE_RECONCILED(InternalLogLevel.DEBUG, "Storage usage has been reconciled for {} users."),
+    UPLOAD_SESSION_EXPIRED(InternalLogLevel.DEBUG, "Upload session '{}' of user with id '{}' has expired and has been removed."),
+
+    BASE_DIRECTORY_INVALID_FILE_REMOVED(InternalLogLevel.DEBUG, "Invalid file '{}' was found in the base directory and has been removed from the disk."),
+    NONEXISTENT_USER_DIRECTORY_REMOVED(InternalLogLevel.DEBUG, "User with id '{}' was not found in database and his directory has been removed from the disk.");
 
     private final InternalLogLevel logLevel;
 
@@ -11,7 +11,8 @@ public enum GlobalErrorMessage implements ErrorMessage {
 
     INVALID_REQUEST_TYPE(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "request", "The request type is invalid. Please ensure the request type matches the expected format."),
     INVALID_JSON(HttpStatus.BAD_REQUEST, "params", "The provided JSON is invalid or malformed. Ensure the JSON structure is correct and all required fields are present."),
-    RATE_LIMITED_ENDPOINT(HttpStatus.TOO_MANY_REQUESTS, "rate-limit", "There have been too many requests lately. Try again after %d seconds.");
+    RATE_LIMITED_ENDPOINT(HttpStatus.TOO_MANY_REQUESTS, "rate-limit", "There have been too many requests lately. Try again after %d seconds."),
+    SERVICE_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "server", "The server is busy processing other requests. Try again after %d seconds.");
 
     private final HttpStatus httpStatus;
 
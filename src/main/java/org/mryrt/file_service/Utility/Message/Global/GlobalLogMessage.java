@@ -12,8 +12,8 @@ import org.slf4j.Logger;
 @Slf4j
 public enum GlobalLogMessage implements LogMessage {
 
-    EXECUTION_TIME(InternalLogLevel.INFO, "Method '%s' was executed in '%s'"),
-    GLOBAL_ERROR_OCCURRED(InternalLogLevel.DEBUG, "Global exception occurred with cause: '%s'.");
+    EXECUTION_TIME(InternalLogLevel.INFO, "Method '{}' was executed in '{}'"),
+    GLOBAL_ERROR_OCCURRED(InternalLogLevel.DEBUG, "Global exception occurred with cause: '{}'.");
 
     private final InternalLogLevel logLevel;
 
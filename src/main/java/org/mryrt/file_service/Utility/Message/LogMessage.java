@@ -2,6 +2,7 @@ package org.mryrt.file_service.Utility.Message;
 
 import io.micrometer.common.util.internal.logging.InternalLogLevel;
 import org.slf4j.Logger;
+import org.slf4j.event.Level;
 
 public interface LogMessage {
 
@@ -11,17 +12,53 @@ public interface LogMessage {
 
     Logger getLogger();
 
+    private Level getLevel() {
+        return switch (getLogLevel()) {
+            case WARN -> Level.WARN;
+            case ERROR -> Level.ERROR;
+            case DEBUG -> Level.DEBUG;
+            case INFO -> Level.INFO;
+            case TRACE -> Level.TRACE;
+        };
+    }
+
+    default boolean isEnabled() {
+        return getLogger().isEnabledForLevel(getLevel());
+    }
+
+    default void log(Object arg) {
+        if (isEnabled())
+            getLogger().atLevel(getLevel()).log(getMessageTemplate(), arg);
+    }
+
+    default void log(Object arg1, Object arg2) {
+        if (isEnabled())
+            getLogger().atLevel(getLevel()).log(getMessageTemplate(), arg1, arg2);
+    }
+
+    default void log(long arg) {
+        if (isEnabled())
+            getLogger().atLevel(getLevel()).log(getMessageTemplate(), arg);
+    }
+
+    default void log(Object arg1, long arg2) {
+        if (isEnabled())
+            getLogger().atLevel(getLevel()).log(getMessageTemplate(), arg1, arg2);
+    }
+
+    default void log(long arg1, Object arg2) {
+        if (isEnabled())
+            getLogger().atLevel(getLevel()).log(getMessageTemplate(), arg1, arg2);
+    }
+
+    default void log(long arg1, long arg2) {
+        if (isEnabled())
+            getLogger().atLevel(getLevel()).log(getMessageTemplate(), arg1, arg2);
+    }
+
     default void log(Object... args) {
-        String logMessage = String.format(getMessageTemplate(), args);
-        Logger logger = getLogger();
-        switch (getLogLevel()) {
-            case WARN -> logger.warn(logMessage);
-            case ERROR -> logger.error(logMessage);
-            case DEBUG -> logger.debug(logMessage);
-            case INFO -> logger.info(logMessage);
-            case TRACE -> logger.trace(logMessage);
-            default -> throw new IllegalArgumentException("Unsupported log level: %s".formatted(getLogLevel()));
-        }
+        if (isEnabled())
+            getLogger().atLevel(getLevel()).log(getMessageTemplate(), args);
     }
 
 }
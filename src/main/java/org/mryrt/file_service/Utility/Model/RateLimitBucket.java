@@ -0,0 +1,26 @@
+package org.mryrt.file_service.Utility.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "rate_limit_bucket")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitBucket {
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private byte[] state;
+
+    @Column(name = "expires_at", nullable = false)
+    private Long expiresAt;
+
+}
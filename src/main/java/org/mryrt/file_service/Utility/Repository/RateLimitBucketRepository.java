@@ -0,0 +1,30 @@
+package org.mryrt.file_service.Utility.Repository;
+
+import org.mryrt.file_service.Utility.Model.RateLimitBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucket, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "insert into rate_limit_bucket (id, state, expires_at) values (:id, :state, :expiresAt) on conflict do nothing", nativeQuery = true)
+    int insertState(@Param("id") String id, @Param("state") byte[] state, @Param("expiresAt") long expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = "update rate_limit_bucket set state = :newState, expires_at = :expiresAt where id = :id and state = :originalState", nativeQuery = true)
+    int compareAndSwapState(@Param("id") String id, @Param("originalState") byte[] originalState,
+                            @Param("newState") byte[] newState, @Param("expiresAt") long expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RateLimitBucket b where b.expiresAt < :now")
+    int deleteExpired(@Param("now") long now);
+
+}
@@ -0,0 +1,145 @@
+package org.mryrt.file_service.Utility.Service;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import jakarta.annotation.PreDestroy;
+import org.mryrt.file_service.Utility.Model.RateLimitBucket;
+import org.mryrt.file_service.Utility.Repository.RateLimitBucketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Service
+@ConditionalOnProperty(name = "rate-limiting.backend", havingValue = "jdbc")
+public class JdbcRateLimitBackend implements RateLimitBackend {
+
+    private final RateLimitBucketRepository rateLimitBucketRepository;
+
+    private final CompareAndSwapProxyManager proxyManager;
+
+    private final ExecutorService asyncExecutor;
+
+    private final long maxUnsynchronizedTokens;
+
+    private final Duration maxUnsynchronizedTimeout;
+
+    public JdbcRateLimitBackend(RateLimitBucketRepository rateLimitBucketRepository,
+                                @Value("${rate-limiting.jdbc.max-unsynchronized-tokens:10}") long maxUnsynchronizedTokens,
+                                @Value("${rate-limiting.jdbc.max-unsynchronized-timeout:500ms}") Duration maxUnsynchronizedTimeout) {
+        this.rateLimitBucketRepository = rateLimitBucketRepository;
+        this.proxyManager = new CompareAndSwapProxyManager();
+        this.asyncExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rate-limit-", 0).factory());
+        this.maxUnsynchronizedTokens = maxUnsynchronizedTokens;
+        this.maxUnsynchronizedTimeout = maxUnsynchronizedTimeout;
+    }
+
+    private static long getCapacity(BucketConfiguration configuration) {
+        long capacity = Long.MAX_VALUE;
+        for (var bandwidth : configuration.getBandwidths())
+            capacity = Math.min(capacity, bandwidth.getCapacity());
+        return capacity;
+    }
+
+    private static long getExpiresAt(RemoteBucketState state) {
+        long now = System.currentTimeMillis();
+        return now + Duration.ofNanos(state.calculateFullRefillingTime(now * 1_000_000)).toMillis();
+    }
+
+    private Optional<byte[]> getStateData(String key) {
+        return rateLimitBucketRepository.findById(key).map(RateLimitBucket::getState);
+    }
+
+    private boolean compareAndSwap(String key, byte[] originalData, byte[] newData, RemoteBucketState newState) {
+        long expiresAt = getExpiresAt(newState);
+        if (originalData == null)
+            return rateLimitBucketRepository.insertState(key, newData, expiresAt) == 1;
+        return rateLimitBucketRepository.compareAndSwapState(key, originalData, newData, expiresAt) == 1;
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        asyncExecutor.shutdown();
+    }
+
+    @Override
+    public Bucket createBucket(String key, BucketConfiguration configuration) {
+        long unsynchronizedTokens = Math.min(maxUnsynchronizedTokens, getCapacity(configuration) / 10);
+        if (unsynchronizedTokens < 1)
+            return proxyManager.builder().build(key, configuration);
+        return proxyManager.builder()
+                .withOptimization(Optimizations.delaying(new DelayParameters(unsynchronizedTokens, maxUnsynchronizedTimeout)))
+                .build(key, configuration);
+    }
+
+    @Override
+    public int removeExpiredBuckets() {
+        return rateLimitBucketRepository.deleteExpired(System.currentTimeMillis());
+    }
+
+    private class CompareAndSwapProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+        private CompareAndSwapProxyManager() {
+            super(ClientSideConfig.getDefault());
+        }
+
+        @Override
+        protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+            return new CompareAndSwapOperation() {
+                @Override
+                public Optional<byte[]> getStateData() {
+                    return JdbcRateLimitBackend.this.getStateData(key);
+                }
+
+                @Override
+                public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                    return JdbcRateLimitBackend.this.compareAndSwap(key, originalData, newData, newState);
+                }
+            };
+        }
+
+        @Override
+        protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+            return new AsyncCompareAndSwapOperation() {
+                @Override
+                public CompletableFuture<Optional<byte[]>> getStateData() {
+                    return CompletableFuture.supplyAsync(() -> JdbcRateLimitBackend.this.getStateData(key), asyncExecutor);
+                }
+
+                @Override
+                public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                    return CompletableFuture.supplyAsync(() -> JdbcRateLimitBackend.this.compareAndSwap(key, originalData, newData, newState), asyncExecutor);
+                }
+            };
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            return CompletableFuture.runAsync(() -> rateLimitBucketRepository.deleteById(key), asyncExecutor);
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            rateLimitBucketRepository.deleteById(key);
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,27 @@
+package org.mryrt.file_service.Utility.Service;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "rate-limiting.backend", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitBackend implements RateLimitBackend {
+
+    @Override
+    public Bucket createBucket(String key, BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths())
+            builder.addLimit(bandwidth);
+        return builder.build();
+    }
+
+    @Override
+    public int removeExpiredBuckets() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,12 @@
+package org.mryrt.file_service.Utility.Service;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+public interface RateLimitBackend {
+
+    Bucket createBucket(String key, BucketConfiguration configuration);
+
+    int removeExpiredBuckets();
+
+}
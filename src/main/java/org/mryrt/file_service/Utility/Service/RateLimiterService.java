@@ -1,29 +1,50 @@
 package org.mryrt.file_service.Utility.Service;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
 
 @Service
 public class RateLimiterService {
 
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private static final String CACHE_NAME = "rate-limit-buckets";
+
+    private final RateLimitBackend rateLimitBackend;
+
+    private final Cache<String, Bucket> buckets;
+
+    public RateLimiterService(RateLimitBackend rateLimitBackend, MeterRegistry meterRegistry,
+                              @Value("${rate-limiting.max-buckets:100000}") long maxBuckets,
+                              @Value("${rate-limiting.bucket-idle-timeout:10m}") Duration bucketIdleTimeout) {
+        this.rateLimitBackend = rateLimitBackend;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(bucketIdleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, CACHE_NAME);
+    }
 
     public Bucket resolveBucket(String key, int maxRequests, int timeWindowSeconds) {
-        return buckets.computeIfAbsent(key, ignored -> createNewBucket(maxRequests, timeWindowSeconds));
+        return buckets.get(key, ignored -> createNewBucket(key, maxRequests, timeWindowSeconds));
     }
 
-    private Bucket createNewBucket(int maxRequests, int timeWindowSeconds) {
-        Refill refill = Refill.intervally(maxRequests, java.time.Duration.ofSeconds(timeWindowSeconds));
+    private Bucket createNewBucket(String key, int maxRequests, int timeWindowSeconds) {
+        Refill refill = Refill.intervally(maxRequests, Duration.ofSeconds(timeWindowSeconds));
         Bandwidth limit = Bandwidth.classic(maxRequests, refill);
-        return Bucket.builder()
+        return rateLimitBackend.createBucket(key, BucketConfiguration.builder()
                 .addLimit(limit)
-                .build();
+                .build());
     }
 
 }
@@ -0,0 +1,24 @@
+package org.mryrt.file_service.Utility.Tasks;
+
+import org.mryrt.file_service.Utility.Service.RateLimitBackend;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "tasks.rate-limit-cleanup.enabled", havingValue = "true")
+public class RateLimitBucketsCleanup {
+
+    final
+    RateLimitBackend rateLimitBackend;
+
+    public RateLimitBucketsCleanup(RateLimitBackend rateLimitBackend) {
+        this.rateLimitBackend = rateLimitBackend;
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.rate-limit-cleanup.frequency:600000}", initialDelayString = "${tasks.rate-limit-cleanup.frequency:600000}")
+    public void removeExpiredBuckets() {
+        rateLimitBackend.removeExpiredBuckets();
+    }
+
+}
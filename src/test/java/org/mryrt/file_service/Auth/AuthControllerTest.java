@@ -1,30 +1,56 @@
 package org.mryrt.file_service.Auth;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mryrt.file_service.Auth.Model.AuthUser;
 import org.mryrt.file_service.Auth.Model.LogInRequest;
 import org.mryrt.file_service.Auth.Model.SignUpRequest;
+import org.mryrt.file_service.Auth.Model.User;
 import org.mryrt.file_service.Auth.Repository.UserRepository;
+import org.mryrt.file_service.Auth.Service.AuthUserCache;
+import org.mryrt.file_service.Auth.Service.PasswordHashingService;
+import org.mryrt.file_service.Auth.Service.UserService;
 import org.mryrt.file_service.FileService.Repository.FileMetaRepository;
 import org.mryrt.file_service.Utility.Message.Auth.AuthErrorMessage;
+import org.mryrt.file_service.Utility.Repository.RateLimitBucketRepository;
+import org.mryrt.file_service.Utility.Service.JdbcRateLimitBackend;
 import org.mryrt.file_service.Utility.TestJwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import static org.mryrt.file_service.Utility.Message.Auth.AuthErrorMessage.*;
 import static org.mryrt.file_service.Utility.Message.Global.GlobalErrorMessage.INVALID_JSON;
+import static org.mryrt.file_service.Utility.Message.Global.GlobalErrorMessage.SERVICE_BUSY;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -47,6 +73,18 @@ public class AuthControllerTest {
     @Autowired
     private TestJwtService testJwtService;
 
+    @Autowired
+    private RateLimitBucketRepository rateLimitBucketRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private AuthUserCache authUserCache;
+
+    @Autowired
+    private UserService userService;
+
     @DynamicPropertySource
     static void overrideProperties(DynamicPropertyRegistry registry) {
         registry.add("rate-limiting.enable", () -> false);
@@ -231,6 +269,99 @@ public class AuthControllerTest {
         checkTokenIsValid(loginAndGetToken("testUser", "password123"));
     }
 
+    @Test
+    void logIn_TokenCarriesUserId_PrincipalEvictedOnDelete() throws Exception {
+        createUser("testUser", "password123");
+        String token = loginAndGetToken("testUser", "password123");
+        JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1]));
+        Assertions.assertEquals(userRepository.findByUsername("testUser").orElseThrow().getId(), claims.get("uid").asLong());
+        Assertions.assertFalse(claims.has("roles"));
+        checkTokenIsValid(token);
+        checkTokenIsValid(token);
+        userRepository.deleteAll();
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().is(USERNAME_NOT_FOUND.getHttpStatus().value()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value(USERNAME_NOT_FOUND.getFormattedMessage("testUser")))
+                .andDo(print());
+    }
+
+    @Test
+    void logIn_HashingSaturated_ReturnsServiceUnavailable() throws Exception {
+        createUser("testUser", "password123");
+        ExecutorService passwordHashExecutor = (ExecutorService) ReflectionTestUtils.getField(passwordHashingService, "passwordHashExecutor");
+        ExecutorService saturatedExecutor = Executors.newSingleThreadExecutor();
+        saturatedExecutor.shutdown();
+        ReflectionTestUtils.setField(passwordHashingService, "passwordHashExecutor", saturatedExecutor);
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/log-in")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(createLogInRequest("testUser", "password123"))))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.server").value(SERVICE_BUSY.getFormattedMessage(1)));
+        } finally {
+            ReflectionTestUtils.setField(passwordHashingService, "passwordHashExecutor", passwordHashExecutor);
+        }
+    }
+
+    @Test
+    void authUserCache_SlowLoad_DoesNotBlockOtherLookups() throws Exception {
+        createUser("testUser", "password123");
+        User user = userRepository.findByUsername("testUser").orElseThrow();
+        authUserCache.evict(user.getId());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<AuthUser> slowLoad = executor.submit(() -> authUserCache.get(user.getId(), id -> {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                return new AuthUser(user);
+            }));
+            Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<AuthUser> lookup = executor.submit(() -> userService.loadAuthUser(user.getId(), "testUser"));
+            Assertions.assertEquals(user.getId(), lookup.get(5, TimeUnit.SECONDS).getId(), "Lookup waited for another thread's load");
+            release.countDown();
+            Assertions.assertEquals(user.getId(), slowLoad.get(5, TimeUnit.SECONDS).getId());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void authUserCache_EvictedDuringLoad_DoesNotCacheStaleUser() throws Exception {
+        createUser("testUser", "password123");
+        User user = userRepository.findByUsername("testUser").orElseThrow();
+        authUserCache.evict(user.getId());
+        AuthUser stale = authUserCache.get(user.getId(), id -> {
+            authUserCache.evict(id);
+            return new AuthUser(user);
+        });
+        AuthUser fresh = authUserCache.get(user.getId(), id -> new AuthUser(user));
+        Assertions.assertNotSame(stale, fresh);
+        Assertions.assertSame(fresh, authUserCache.get(user.getId(), id -> {
+            throw new AssertionError("Cached principal was not reused");
+        }));
+    }
+
+    @Test
+    void logIn_WeakerHash_UpgradedOnSuccess() throws Exception {
+        createUser("testUser", "password123");
+        User user = userRepository.findByUsername("testUser").orElseThrow();
+        user.setPassword(new BCryptPasswordEncoder(4).encode("password123"));
+        userRepository.save(user);
+        checkTokenIsValid(loginAndGetToken("testUser", "password123"));
+        String upgradedPassword = userRepository.findByUsername("testUser").orElseThrow().getPassword();
+        Assertions.assertTrue(upgradedPassword.startsWith("$2a$10$"));
+        checkTokenIsValid(loginAndGetToken("testUser", "password123"));
+    }
+
     @Test
     void logIn_NonExistentUser() throws Exception {
         performLogInAndExpectBadRequest();
@@ -270,6 +401,34 @@ public class AuthControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void rateLimit_JdbcBackend_SharesBudgetAcrossInstances() throws Exception {
+        rateLimitBucketRepository.deleteAll();
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(3, Refill.intervally(3, Duration.ofMinutes(1))))
+                .build();
+        Bucket firstNode = new JdbcRateLimitBackend(rateLimitBucketRepository, 10, Duration.ofMillis(500)).createBucket("client:log-in", configuration);
+        Bucket secondNode = new JdbcRateLimitBackend(rateLimitBucketRepository, 10, Duration.ofMillis(500)).createBucket("client:log-in", configuration);
+        Assertions.assertTrue(firstNode.tryConsume(1));
+        Assertions.assertTrue(secondNode.tryConsume(1));
+        Assertions.assertTrue(firstNode.tryConsume(1));
+        Assertions.assertFalse(secondNode.tryConsume(1));
+        Bucket batchedBucket = new JdbcRateLimitBackend(rateLimitBucketRepository, 10, Duration.ofMillis(500)).createBucket("client:sign-up",
+                BucketConfiguration.builder().addLimit(Bandwidth.classic(100, Refill.intervally(100, Duration.ofMinutes(1)))).build());
+        for (int i = 0; i < 100; i++)
+            Assertions.assertTrue(batchedBucket.tryConsume(1));
+        Assertions.assertFalse(batchedBucket.tryConsume(1));
+        Assertions.assertEquals(2, rateLimitBucketRepository.count());
+
+        JdbcRateLimitBackend asyncNode = new JdbcRateLimitBackend(rateLimitBucketRepository, 10, Duration.ofMillis(500));
+        ProxyManager<String> proxyManager = (ProxyManager<String>) ReflectionTestUtils.getField(asyncNode, "proxyManager");
+        AsyncBucketProxy asyncBucket = proxyManager.asAsync().builder().build("client:log-in", configuration);
+        Assertions.assertFalse(asyncBucket.tryConsume(1).get());
+        proxyManager.asAsync().removeProxy("client:log-in").get();
+        Assertions.assertTrue(asyncBucket.tryConsume(1).get());
+    }
+
     @Test
     void access_MissingAuthorizationHeader() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/api/files"))
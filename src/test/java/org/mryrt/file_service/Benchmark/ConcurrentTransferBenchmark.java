@@ -0,0 +1,162 @@
+package org.mryrt.file_service.Benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.mryrt.file_service.FileService.Model.FileMeta;
+import org.mryrt.file_service.FileService.Service.FileChangeJournal;
+import org.mryrt.file_service.FileService.Service.FileContentCache;
+import org.mryrt.file_service.FileService.Service.FilePathService;
+import org.mryrt.file_service.FileService.Service.FileTransferService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentTransferBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long OWNER_ID = 1;
+    private static final int FILE_SIZE = 256 * 1024;
+    private static final int CLIENT_CHUNK_SIZE = 16 * 1024;
+    private static final long CLIENT_CHUNK_DELAY_MILLIS = 2;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    @Param({"1000"})
+    private int transfers;
+
+    private Path uploadDir;
+
+    private FileMeta fileMeta;
+
+    private FileChangeJournal fileChangeJournal;
+
+    private FileContentCache fileContentCache;
+
+    private FileTransferService fileTransferService;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("transfer-benchmark");
+        fileMeta = FileMeta.builder()
+                .id(1)
+                .ownerId(OWNER_ID)
+                .name("Transfer.bin")
+                .extension(".bin")
+                .size((long) FILE_SIZE)
+                .uuid(UUID.randomUUID().toString())
+                .updateAt(Instant.now())
+                .build();
+        byte[] content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+        Files.write(Files.createDirectories(uploadDir.resolve(String.valueOf(OWNER_ID))).resolve(fileMeta.getDiskName()), content);
+
+        fileChangeJournal = new FileChangeJournal("scan", 0);
+        FilePathService filePathService = new FilePathService(new DefaultResourceLoader(), null, null, fileChangeJournal);
+        ReflectionTestUtils.setField(filePathService, "UPLOAD_DIR", uploadDir.toString());
+        fileContentCache = new FileContentCache(filePathService, new SimpleMeterRegistry(), DataSize.ofMegabytes(64), DataSize.ofBytes(FILE_SIZE));
+        ReflectionTestUtils.setField(fileContentCache, "enabled", cached);
+        fileTransferService = new FileTransferService();
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        fileChangeJournal.close();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    private static class SlowClientResponse extends MockHttpServletResponse {
+
+        private long written;
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                written++;
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                while (length > 0) {
+                    int chunk = Math.min(length, CLIENT_CHUNK_SIZE);
+                    written += chunk;
+                    length -= chunk;
+                    try {
+                        Thread.sleep(CLIENT_CHUNK_DELAY_MILLIS);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+
+    }
+
+    private long transfer() {
+        SlowClientResponse response = new SlowClientResponse();
+        fileTransferService.transferFile(() -> fileContentCache.getUserFile(fileMeta), new HttpHeaders(),
+                new MockHttpServletRequest("GET", "/api/files/%s".formatted(fileMeta.getUuid())), response);
+        return response.written;
+    }
+
+    @Benchmark
+    public long concurrentTransfers() {
+        CompletableFuture<?>[] futures = new CompletableFuture[transfers];
+        for (int i = 0; i < transfers; i++)
+            futures[i] = CompletableFuture.supplyAsync(this::transfer, executor);
+        CompletableFuture.allOf(futures).join();
+        return futures.length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ConcurrentTransferBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
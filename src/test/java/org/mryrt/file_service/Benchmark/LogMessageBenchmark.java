@@ -0,0 +1,67 @@
+package org.mryrt.file_service.Benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.mryrt.file_service.Utility.Message.Auth.AuthLogMessage;
+import org.mryrt.file_service.Utility.Message.Files.FilesLogMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogMessageBenchmark {
+
+    private String filename;
+
+    private String cause;
+
+    private long userId;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(FilesLogMessage.class)).setLevel(Level.INFO);
+        ((Logger) LoggerFactory.getLogger(AuthLogMessage.class)).setLevel(Level.INFO);
+        filename = "Report.pdf";
+        cause = "Access denied";
+        userId = 1_000_000L;
+    }
+
+    @Benchmark
+    public String eagerFormat() {
+        return String.format("File service exception occurred: '%s', cause: '%s'.", cause, filename);
+    }
+
+    @Benchmark
+    public void disabledDebug() {
+        FilesLogMessage.FILE_INTERNAL_EXCEPTION_OCCURRED.log(cause, filename);
+    }
+
+    @Benchmark
+    public void disabledDebugWithUserId() {
+        FilesLogMessage.NOT_USER_FILE.log(filename, userId);
+    }
+
+    @Benchmark
+    public void disabledDebugWithLong() {
+        FilesLogMessage.STORAGE_USAGE_RECONCILED.log(userId);
+    }
+
+    @Benchmark
+    public void disabledUserLoggedIn() {
+        AuthLogMessage.USER_LOGGED_IN.log(filename);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LogMessageBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+
+}
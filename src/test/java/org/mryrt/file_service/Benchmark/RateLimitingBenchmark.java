@@ -0,0 +1,89 @@
+package org.mryrt.file_service.Benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.mryrt.file_service.Utility.Annotation.RateLimited;
+import org.mryrt.file_service.Utility.Aspect.RateLimitingAspect;
+import org.mryrt.file_service.Utility.Service.LocalRateLimitBackend;
+import org.mryrt.file_service.Utility.Service.RateLimiterService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.framework.ReflectiveMethodInvocation;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimitingBenchmark {
+
+    @Param({"1", "1000", "1000000"})
+    private int clients;
+
+    @Param({"100000"})
+    private long maxBuckets;
+
+    private RateLimitingAspect aspect;
+
+    private ProceedingJoinPoint joinPoint;
+
+    private RateLimited rateLimited;
+
+    @RateLimited(maxRequests = 1_000_000_000, timeWindowSeconds = 3600)
+    public void limitedEndpoint() {
+    }
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        aspect = new RateLimitingAspect(new RateLimiterService(new LocalRateLimitBackend(), new SimpleMeterRegistry(), maxBuckets, Duration.ofMinutes(10)));
+        Method method = RateLimitingBenchmark.class.getMethod("limitedEndpoint");
+        joinPoint = new MethodInvocationProceedingJoinPoint(new ReflectiveMethodInvocation(
+                this, this, method, new Object[0], RateLimitingBenchmark.class, List.of()) {
+        });
+        rateLimited = method.getAnnotation(RateLimited.class);
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private MockHttpServletRequest request;
+
+        @Setup
+        public void setUp() {
+            request = new MockHttpServletRequest();
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        }
+
+        @TearDown
+        public void tearDown() {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+    }
+
+    @Benchmark
+    public Object applyRateLimiting(Client client) throws Throwable {
+        int address = ThreadLocalRandom.current().nextInt(clients);
+        client.request.setRemoteAddr("10.%d.%d.%d".formatted(address >>> 16 & 0xFF, address >>> 8 & 0xFF, address & 0xFF));
+        return aspect.applyRateLimiting(joinPoint, rateLimited);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimitingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
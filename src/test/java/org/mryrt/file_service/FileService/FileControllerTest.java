@@ -4,35 +4,84 @@ import com.fasterxml.jackson.core.json.JsonWriteFeature;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mryrt.file_service.Auth.Model.LogInRequest;
 import org.mryrt.file_service.Auth.Model.SignUpRequest;
 import org.mryrt.file_service.Auth.Repository.UserRepository;
+import org.mryrt.file_service.FileService.Model.FileMeta;
+import org.mryrt.file_service.FileService.Model.StorageUsage;
+import org.mryrt.file_service.FileService.Model.TaskCursor;
+import org.mryrt.file_service.FileService.Model.UploadSession;
+import org.mryrt.file_service.FileService.Repository.FileBlobRepository;
 import org.mryrt.file_service.FileService.Repository.FileMetaRepository;
+import org.mryrt.file_service.FileService.Repository.StorageUsageRepository;
+import org.mryrt.file_service.FileService.Repository.TaskCursorRepository;
+import org.mryrt.file_service.FileService.Repository.UploadSessionRepository;
+import org.mryrt.file_service.FileService.Service.FileChangeJournal;
+import org.mryrt.file_service.FileService.Service.FileContentCache;
+import org.mryrt.file_service.FileService.Service.FileIntegrityService;
+import org.mryrt.file_service.FileService.Service.FileMetaService;
+import org.mryrt.file_service.FileService.Service.FilePathService;
+import org.mryrt.file_service.FileService.Service.StorageUsageService;
+import org.mryrt.file_service.FileService.Service.UploadSessionService;
 import org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mryrt.file_service.Utility.Message.Files.FilesErrorMessage.*;
 import static org.springframework.test.util.AssertionErrors.assertNotNull;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
@@ -50,6 +99,30 @@ public class FileControllerTest {
     private MockMvc mockMvc;
     @Autowired
     private FileMetaRepository fileMetaRepository;
+    @Autowired
+    private StorageUsageRepository storageUsageRepository;
+    @Autowired
+    private StorageUsageService storageUsageService;
+    @Autowired
+    private FileMetaService fileMetaService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+    @Autowired
+    private UploadSessionService uploadSessionService;
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+    @Autowired
+    private FilePathService filePathService;
+    @Autowired
+    private FileChangeJournal fileChangeJournal;
+    @Autowired
+    private TaskCursorRepository taskCursorRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @DynamicPropertySource
     static void overrideProperties(DynamicPropertyRegistry registry) {
@@ -85,6 +158,8 @@ public class FileControllerTest {
     @BeforeEach
     void setUp() {
         fileMetaRepository.deleteAll();
+        storageUsageRepository.deleteAll();
+        fileBlobRepository.deleteAll();
     }
 
     private MockMultipartFile getTestFile(String fileName) throws Exception {
@@ -133,6 +208,25 @@ public class FileControllerTest {
                 .andExpect(status().isOk());
     }
 
+    private void uploadFileStream(String filename, byte[] content) throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/files/{name}", filename)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(content)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value(filename))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size").value(content.length));
+    }
+
+    private void uploadFileStreamAndExpectError(String filename, byte[] content, FilesErrorMessage filesErrorMessage, Object... args) throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/files/{name}", filename)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(content)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().is(filesErrorMessage.getHttpStatus().value()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.%s".formatted(filesErrorMessage.getErrorField())).value(filesErrorMessage.getFormattedMessage(args)));
+    }
+
     private void deleteFile(String uuid, String filename) throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/files/%s".formatted(uuid))
                         .header("Authorization", "Bearer %s".formatted(token)))
@@ -235,6 +329,327 @@ public class FileControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$." + "file").value(FILES_LIMIT_EXCEEDED.getFormattedMessage()));
     }
 
+    @Test
+    void uploadFileStream_Success() throws Exception {
+        String filename = "Streamed.txt";
+        byte[] content = "Streamed file content".getBytes(StandardCharsets.UTF_8);
+        uploadFileStream(filename, content);
+        String uuid = extractUuid(filename);
+        assertArrayEquals(content, getFile(uuid, filename), "Downloaded file content does not match the original file");
+    }
+
+    @Test
+    void uploadFileStream_EmptyBody_ReturnsBadRequest() throws Exception {
+        uploadFileStreamAndExpectError("empty.txt", new byte[0], FILE_IS_EMPTY);
+    }
+
+    @Test
+    void uploadFiles_Batch_ReturnsPerFileResults() throws Exception {
+        MockMultipartFile first = new MockMultipartFile("file", "Batch.txt", null, "First".getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile second = new MockMultipartFile("file", "Batch.txt", null, "Second".getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile empty = new MockMultipartFile("file", "Empty.txt", null, new byte[0]);
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/api/files/batch")
+                        .file(first)
+                        .file(second)
+                        .file(empty)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value(200))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].file.name").value("Batch.txt"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value(200))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].file.name").value("Batch(1).txt"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].status").value(400))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].error").value(FILE_IS_EMPTY.getFormattedMessage()));
+
+        String uuid = extractUuid("Batch(1).txt");
+        byte[] downloaded = mockMvc.perform(MockMvcRequestBuilders.get("/api/files/{uuid}", uuid)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        assertArrayEquals(second.getBytes(), downloaded);
+        assertEquals(11L, storageUsageRepository.findById(userId).orElseThrow().getUsedBytes());
+    }
+
+    @Test
+    void alignIdSequence_MovesSequencePastExistingIds() throws Exception {
+        uploadFileStream("Legacy.txt", "legacy".getBytes(StandardCharsets.UTF_8));
+        int legacyId = fileMetaRepository.findAllByOwnerId(userId).get(0).getId() + 100_000;
+        jdbcTemplate.update("UPDATE file_meta SET id = ? WHERE owner_id = ?", legacyId, userId);
+
+        fileMetaService.alignIdSequence();
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM file_meta_seq", Long.class);
+        assertEquals(legacyId, lastValue.intValue());
+
+        fileMetaService.alignIdSequence();
+        assertEquals(lastValue, jdbcTemplate.queryForObject("SELECT last_value FROM file_meta_seq", Long.class));
+    }
+
+    @Test
+    void reconcileStorageUsage_KeepsInFlightReservation() throws Exception {
+        uploadFileStream("Reconciled.txt", "reconciled".getBytes(StandardCharsets.UTF_8));
+        assertTrue(storageUsageService.reserve(userId, 1000, Long.MAX_VALUE));
+        storageUsageService.reconcile();
+        StorageUsage storageUsage = storageUsageRepository.findById(userId).orElseThrow();
+        assertEquals(10L, storageUsage.getUsedBytes());
+        assertEquals(1000L, storageUsage.getReservedBytes());
+        assertEquals(1010L, storageUsageService.getUsedBytes(userId));
+
+        storageUsageService.cancelReservation(userId, 1000);
+        storageUsage = storageUsageRepository.findById(userId).orElseThrow();
+        assertEquals(10L, storageUsage.getUsedBytes());
+        assertEquals(0L, storageUsage.getReservedBytes());
+    }
+
+    @Test
+    void reconcileStorageUsage_WaitsForInFlightUploadAndDelete() throws Exception {
+        uploadFileStream("Reconciled.txt", "reconciled".getBytes(StandardCharsets.UTF_8));
+        assertTrue(storageUsageService.reserve(userId, 7, Long.MAX_VALUE));
+        FileMeta draft = FileMeta.builder().ownerId(userId).name("InFlight.txt").size(7L).storedSize(7L).build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> uploadReconcile = transactionTemplate.execute(status -> {
+                draft.setId(fileMetaService.createFileMeta(userId, draft).getId());
+                Future<?> reconcile = executor.submit(storageUsageService::reconcile);
+                assertThrows(TimeoutException.class, () -> reconcile.get(500, TimeUnit.MILLISECONDS));
+                return reconcile;
+            });
+            uploadReconcile.get(10, TimeUnit.SECONDS);
+            StorageUsage storageUsage = storageUsageRepository.findById(userId).orElseThrow();
+            assertEquals(17L, storageUsage.getUsedBytes());
+            assertEquals(0L, storageUsage.getReservedBytes());
+
+            Future<?> deleteReconcile = transactionTemplate.execute(status -> {
+                fileMetaService.deleteFilesMeta(userId, List.of(draft.getId()), 7);
+                Future<?> reconcile = executor.submit(storageUsageService::reconcile);
+                assertThrows(TimeoutException.class, () -> reconcile.get(500, TimeUnit.MILLISECONDS));
+                return reconcile;
+            });
+            deleteReconcile.get(10, TimeUnit.SECONDS);
+            assertEquals(10L, storageUsageRepository.findById(userId).orElseThrow().getUsedBytes());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getFile_Range_ReturnsPartialContent() throws Exception {
+        String filename = "Ranged.txt";
+        byte[] content = "0123456789".getBytes(StandardCharsets.UTF_8);
+        uploadFileStream(filename, content);
+        String uuid = extractUuid(filename);
+        byte[] part = mockMvc.perform(MockMvcRequestBuilders.get("/api/files/%s".formatted(uuid))
+                        .header("Range", "bytes=2-5")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        assertArrayEquals("2345".getBytes(StandardCharsets.UTF_8), part, "Downloaded range does not match the requested bytes");
+    }
+
+    @Test
+    void getFile_UnsatisfiableRange_ReturnsRangeNotSatisfiable() throws Exception {
+        String filename = "Ranged.txt";
+        uploadFileStream(filename, "0123456789".getBytes(StandardCharsets.UTF_8));
+        String uuid = extractUuid(filename);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files/%s".formatted(uuid))
+                        .header("Range", "bytes=20-30")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().is(RANGE_NOT_SATISFIABLE.getHttpStatus().value()))
+                .andExpect(header().string("Content-Range", "bytes */10"));
+    }
+
+    @Test
+    void verifyFile_ComparesContentChecksum() throws Exception {
+        String filename = "Verified.bin";
+        byte[] content = "verified content".getBytes(StandardCharsets.UTF_8);
+        uploadFileStream(filename, content);
+        String uuid = extractUuid(filename);
+        String digest = "sha-256=" + Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(content));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files/{uuid}", uuid)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Digest", digest));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/files/{uuid}/verify", uuid)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.suspiciousModified").doesNotExist());
+
+        Files.write(tempDir.resolve(String.valueOf(userId)).resolve(uuid + ".bin"), "tampered content".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/files/{uuid}/verify", uuid)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.suspiciousModified").value(true));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].suspiciousModified").value(true));
+    }
+
+    @Test
+    void getFile_Compressed_DecodedOrPassedThrough() throws Exception {
+        String filename = "Compressed.log";
+        byte[] content = "INFO compressible log line\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        uploadFileStream(filename, content);
+        String uuid = extractUuid(filename);
+        assertTrue(Files.size(tempDir.resolve(String.valueOf(userId)).resolve(uuid + ".log")) < content.length,
+                "Compressible file was not compressed at rest");
+
+        byte[] decoded = mockMvc.perform(MockMvcRequestBuilders.get("/api/files/{uuid}", uuid)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        assertArrayEquals(content, decoded);
+
+        byte[] encoded = mockMvc.perform(MockMvcRequestBuilders.get("/api/files/{uuid}", uuid)
+                        .header("Authorization", "Bearer %s".formatted(token))
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            assertArrayEquals(content, inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void getArchive_StreamsZipWithStoredAndDeflatedEntries() throws Exception {
+        byte[] text = "archived text\n".repeat(100).getBytes(StandardCharsets.UTF_8);
+        byte[] image = new byte[4096];
+        new Random(42).nextBytes(image);
+        byte[] log = "INFO archived log line\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        uploadFileStream("Archived.txt", text);
+        uploadFileStream("Image.png", image);
+        uploadFileStream("Journal.log", log);
+
+        byte[] archive = mockMvc.perform(MockMvcRequestBuilders.post("/api/files/archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"all\": true}")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/zip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        Map<String, byte[]> expected = Map.of("Archived.txt", text, "Image.png", image, "Journal.log", log);
+        int entries = 0;
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entries++;
+                assertArrayEquals(expected.get(entry.getName()), zipInputStream.readAllBytes(), "Archived entry content mismatch");
+                assertEquals(entry.getName().endsWith(".png") ? ZipEntry.STORED : ZipEntry.DEFLATED, entry.getMethod());
+            }
+        }
+        assertEquals(expected.size(), entries);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/files/archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"uuids\": [\"%s\", \"00000000-0000-0000-0000-000000000000\"]}".formatted(extractUuid("Archived.txt")))
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void uploadSession_ChunkedUpload_Success() throws Exception {
+        String filename = "Chunked.txt";
+        byte[] content = "First chunk|Second chunk".getBytes(StandardCharsets.UTF_8);
+        String session = mockMvc.perform(MockMvcRequestBuilders.post("/api/files/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(Map.of("name", filename, "size", content.length)))
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.offset").value(0))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String sessionUuid = JsonPath.parse(session).read("$.uuid", String.class);
+        assertEquals(content.length, storageUsageRepository.findById(userId).orElseThrow().getReservedBytes());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/files/uploads/%s".formatted(sessionUuid))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(Arrays.copyOfRange(content, 0, 12))
+                        .header("Upload-Offset", 0)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Upload-Offset", "12"));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/files/uploads/%s".formatted(sessionUuid))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(Arrays.copyOfRange(content, 0, 12))
+                        .header("Upload-Offset", 0)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().is(UPLOAD_OFFSET_MISMATCH.getHttpStatus().value()));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/files/uploads/%s".formatted(sessionUuid))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(Arrays.copyOfRange(content, 12, content.length))
+                        .header("Upload-Offset", 12)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Upload-Offset", String.valueOf(content.length)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/files/uploads/%s/complete".formatted(sessionUuid))
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value(filename));
+
+        StorageUsage storageUsage = storageUsageRepository.findById(userId).orElseThrow();
+        assertEquals(content.length, storageUsage.getUsedBytes());
+        assertEquals(0L, storageUsage.getReservedBytes());
+        String uuid = extractUuid(filename);
+        assertArrayEquals(content, getFile(uuid, filename), "Downloaded file content does not match the uploaded chunks");
+    }
+
+    private String createUploadSession(String filename, long size) throws Exception {
+        String session = mockMvc.perform(MockMvcRequestBuilders.post("/api/files/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(Map.of("name", filename, "size", size)))
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return JsonPath.parse(session).read("$.uuid", String.class);
+    }
+
+    @Test
+    void uploadSession_ReservesSpaceUntilDeletedOrExpired() throws Exception {
+        String deletedSession = createUploadSession("Deleted.bin", 1000);
+        String expiredSession = createUploadSession("Expired.bin", 2000);
+        assertEquals(3000L, storageUsageRepository.findById(userId).orElseThrow().getReservedBytes());
+
+        long otherReservation = 1024L * 1024 * 1024 - 3000 - 10;
+        assertTrue(storageUsageService.reserve(userId, otherReservation, Long.MAX_VALUE));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/files/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(Map.of("name", "Rejected.bin", "size", 11)))
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().is(NOT_ENOUGH_SPACE.getHttpStatus().value()));
+        storageUsageService.cancelReservation(userId, otherReservation);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/files/uploads/%s".formatted(deletedSession))
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk());
+        assertEquals(2000L, storageUsageRepository.findById(userId).orElseThrow().getReservedBytes());
+
+        UploadSession uploadSession = uploadSessionRepository.findByUuidAndOwnerId(expiredSession, userId).orElseThrow();
+        uploadSession.setExpiresAt(Instant.now().minusSeconds(1));
+        uploadSessionRepository.save(uploadSession);
+        uploadSessionService.removeExpiredSessions();
+        assertTrue(uploadSessionRepository.findByUuidAndOwnerId(expiredSession, userId).isEmpty());
+        assertEquals(0L, storageUsageRepository.findById(userId).orElseThrow().getReservedBytes());
+    }
+
     @Test
     void getFile_FileNotFound_ReturnsBadRequest() throws Exception {
         getFileAndExpectError("invalid-uuid", INVALID_FILE_UUID);
@@ -250,6 +665,29 @@ public class FileControllerTest {
         getFileAndExpectError(uuid, UUID_NOT_EXIST, uuid, userId);
     }
 
+    @Test
+    void deleteFiles_Batch_ReturnsPerUuidStatus() throws Exception {
+        uploadFileStream("First.txt", "First".getBytes(StandardCharsets.UTF_8));
+        uploadFileStream("Second.txt", "Second".getBytes(StandardCharsets.UTF_8));
+        String firstUuid = extractUuid("First.txt");
+        String secondUuid = extractUuid("Second.txt");
+        String missingUuid = "128b7b5a-e573-317b-8c0b-371a40e4a21e";
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/files/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(List.of(firstUuid, secondUuid, missingUuid, "invalid-uuid")))
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value(200))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].file.name").value("First.txt"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value(200))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].status").value(UUID_NOT_EXIST.getHttpStatus().value()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].error").value(UUID_NOT_EXIST.getFormattedMessage(missingUuid, userId)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[3].status").value(INVALID_FILE_UUID.getHttpStatus().value()));
+
+        getFileAndExpectError(firstUuid, UUID_NOT_EXIST, firstUuid, userId);
+        assertEquals(0L, storageUsageRepository.findById(userId).orElseThrow().getUsedBytes());
+    }
+
     @Test
     void deleteFile_FileNotFound_ReturnsBadRequest() throws Exception {
         String filename = "Test50MB.pdf";
@@ -271,6 +709,79 @@ public class FileControllerTest {
         deleteFileAndExpectError("invalid-uuid", INVALID_FILE_UUID);
     }
 
+    @Test
+    void getFilesMeta_FileRemovedFromDisk_MarkedAsDeleted() throws Exception {
+        String filename = "TestFile.txt";
+        uploadFileStream(filename, "Removed out of band".getBytes(StandardCharsets.UTF_8));
+        String uuid = extractUuid(filename);
+        Files.delete(tempDir.resolve(String.valueOf(userId)).resolve(uuid + ".txt"));
+
+        boolean deletedFromDisk = false;
+        for (int attempt = 0; attempt < 50 && !deletedFromDisk; attempt++) {
+            deletedFromDisk = JsonPath.parse(getFilesMeta()).read("$[0].deletedFromDisk", Boolean.class);
+            if (!deletedFromDisk)
+                Thread.sleep(100);
+        }
+        assertTrue(deletedFromDisk, "File removed from disk was not marked as deleted");
+    }
+
+    @Test
+    void fileChangeJournal_OwnWrites_DoNotTriggerReconcile() throws Exception {
+        getFilesMeta();
+        uploadFileStream("Own.txt", "Written by the service".getBytes(StandardCharsets.UTF_8));
+        String ownFilename = fileMetaRepository.findAllByOwnerId(userId).get(0).getDiskName();
+        Path userFolder = tempDir.resolve(String.valueOf(userId));
+        Files.writeString(userFolder.resolve("foreign.txt"), "Written out of band");
+
+        Set<String> changes = new HashSet<>();
+        for (int attempt = 0; attempt < 50 && !changes.contains("foreign.txt"); attempt++) {
+            fileChangeJournal.takeChanges(userId, userFolder).ifPresent(changes::addAll);
+            if (!changes.contains("foreign.txt"))
+                Thread.sleep(100);
+        }
+        assertTrue(changes.contains("foreign.txt"), "Out of band write was not recorded");
+        assertFalse(changes.contains(ownFilename), "Own write was recorded as a change");
+        Files.delete(userFolder.resolve("foreign.txt"));
+    }
+
+    @Test
+    void fileChangeJournal_TooManyDirectories_FallsBackToFullScans() throws Exception {
+        Path folder = Files.createDirectories(tempDir.resolve("watched"));
+        Files.createDirectories(folder.resolve("ab").resolve("cd"));
+        FileChangeJournal limitedJournal = new FileChangeJournal("watch", 2);
+        FileChangeJournal journal = new FileChangeJournal("watch", 3);
+        try {
+            assertEquals(Optional.empty(), limitedJournal.takeChanges(userId, folder));
+            assertEquals(Optional.empty(), limitedJournal.takeChanges(userId, folder));
+            assertEquals(Optional.empty(), journal.takeChanges(userId, folder));
+            assertEquals(Optional.of(Set.of()), journal.takeChanges(userId, folder));
+        } finally {
+            limitedJournal.close();
+            journal.close();
+        }
+    }
+
+    @Test
+    void layoutMigration_UnchangedLayout_SkipsWalk() throws Exception {
+        uploadFileStream("Layout.bin", "Layout content".getBytes(StandardCharsets.UTF_8));
+        String uuid = extractUuid("Layout.bin");
+        filePathService.migrateUserFolders();
+        assertEquals(0, taskCursorRepository.findById("layout-migration").orElseThrow().getPosition());
+
+        Path flatFile = tempDir.resolve(String.valueOf(userId)).resolve(uuid + ".bin");
+        Path misplacedFile = flatFile.resolveSibling(uuid.substring(0, 2)).resolve(uuid + ".bin");
+        Files.createDirectories(misplacedFile.getParent());
+        Files.move(flatFile, misplacedFile);
+        assertEquals(0, filePathService.migrateUserFolders());
+        assertTrue(Files.exists(misplacedFile), "Unchanged layout was walked again");
+
+        taskCursorRepository.deleteById("layout-migration");
+        assertEquals(1, filePathService.migrateUserFolders());
+        assertTrue(Files.exists(flatFile), "File was not moved back after the layout cursor was reset");
+        assertEquals(0, taskCursorRepository.findById("layout-migration").orElseThrow().getPosition());
+        deleteFile(uuid, "Layout.bin");
+    }
+
     @Test
     void getFilesMeta_WhenNoFilesUploaded_ReturnsEmptyList() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
@@ -279,10 +790,370 @@ public class FileControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$").isEmpty());
     }
 
+    @Test
+    void getFilesMeta_Paginated_ReturnsPagesWithCursor() throws Exception {
+        for (String filename : List.of("Page1.txt", "Page2.txt", "Page3.txt"))
+            uploadFileStream(filename, filename.getBytes(StandardCharsets.UTF_8));
+
+        String nextCursor = mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .param("limit", "2")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("Page1.txt"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].name").value("Page2.txt"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .param("limit", "2")
+                        .param("after", nextCursor)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("Page3.txt"))
+                .andExpect(header().string("X-Next-Cursor", ""));
+    }
+
+    @Test
+    void getFilesMeta_IfNoneMatch_ReturnsNotModifiedUntilChanged() throws Exception {
+        uploadFileStream("Listed.txt", "listed".getBytes(StandardCharsets.UTF_8));
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .header("If-None-Match", eTag)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isNotModified());
+
+        uploadFileStream("Listed2.txt", "listed".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .header("If-None-Match", eTag)
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void getFilesMeta_RecordsExecutionTimeMetrics() throws Exception {
+        long before = meterRegistry.find("method.execution").tag("class", "FileService").tag("method", "getFiles").timers().stream()
+                .mapToLong(Timer::count).sum();
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isOk());
+        Timer timer = meterRegistry.get("method.execution").tag("class", "FileService").tag("method", "getFiles").timer();
+        assertEquals(before + 1, timer.count());
+        assertTrue(timer.max(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    void repositoryMethods_TaggedWithRepositoryInterface() throws Exception {
+        uploadFileStream("Tagged.txt", "tagged".getBytes(StandardCharsets.UTF_8));
+        assertTrue(meterRegistry.find("method.execution").timers().stream()
+                .map(timer -> timer.getId().getTag("class"))
+                .noneMatch(type -> type.startsWith("$Proxy") || type.equals("CrudRepository") || type.equals("JpaRepository")));
+        assertTrue(meterRegistry.get("method.execution").tag("class", "FileMetaRepository").tag("method", "existsByOwnerIdAndBaseNameAndDuplicateIndex").timer().count() > 0);
+        assertTrue(meterRegistry.get("method.execution").tag("class", "StorageUsageRepository").tag("method", "reserve").timer().count() > 0);
+    }
+
+    @Test
+    void getFilesMeta_InvalidPagination_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .param("after", "not-a-cursor")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.after").value(INVALID_CURSOR.getFormattedMessage()));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                        .param("limit", "0")
+                        .header("Authorization", "Bearer %s".formatted(token)))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.limit").value(INVALID_PAGE_LIMIT.getFormattedMessage(1000)));
+    }
+
     @Test
     void getFiles_AsUnauthorizedUser_ReturnsUnauthorized() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/api/files"))
                 .andExpect(status().isUnauthorized());
     }
 
+    @Nested
+    @TestPropertySource(properties = "file.service.cache.enabled=true")
+    class ContentCacheEnabled {
+
+        @Autowired
+        private FileContentCache fileContentCache;
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @BeforeEach
+        void useNestedContext(@Autowired MockMvc mockMvc) {
+            FileControllerTest.this.mockMvc = mockMvc;
+        }
+
+        @Test
+        void getFile_IfNoneMatch_ReturnsNotModified() throws Exception {
+            String filename = "Cached.txt";
+            uploadFileStream(filename, "0123456789".getBytes(StandardCharsets.UTF_8));
+            String uuid = extractUuid(filename);
+            String eTag = mockMvc.perform(MockMvcRequestBuilders.head("/api/files/%s".formatted(uuid))
+                            .header("Authorization", "Bearer %s".formatted(token)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("ETag"))
+                    .andExpect(header().exists("Last-Modified"))
+                    .andExpect(header().longValue("Content-Length", 10))
+                    .andReturn()
+                    .getResponse()
+                    .getHeader("ETag");
+            double cacheGets = meterRegistry.get("cache.gets").tag("cache", "file-content").functionCounters().stream()
+                    .mapToDouble(FunctionCounter::count).sum();
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/files/%s".formatted(uuid))
+                            .header("If-None-Match", eTag)
+                            .header("Authorization", "Bearer %s".formatted(token)))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", eTag));
+            assertEquals(cacheGets, meterRegistry.get("cache.gets").tag("cache", "file-content").functionCounters().stream()
+                    .mapToDouble(FunctionCounter::count).sum(), "File content was loaded for a 304 response");
+        }
+
+        @Test
+        void getFile_Cached_ReuploadUnderSameNameServesNewContent() throws Exception {
+            String filename = "Reused.bin";
+            uploadFileStream(filename, "old-content".getBytes(StandardCharsets.UTF_8));
+            String uuid = extractUuid(filename);
+            assertArrayEquals("old-content".getBytes(StandardCharsets.UTF_8), getFile(uuid, filename));
+            deleteFile(uuid, filename);
+
+            byte[] newContent = "new-content".getBytes(StandardCharsets.UTF_8);
+            uploadFileStream(filename, newContent);
+            assertEquals(uuid, extractUuid(filename));
+            assertArrayEquals(newContent, getFile(uuid, filename));
+            deleteFile(uuid, filename);
+        }
+
+        @Test
+        void getFile_CachedOnVirtualThreads_DoesNotPinCarrier() throws Exception {
+            Path recordingFile = Files.createTempFile("virtual-thread-pinning", ".jfr");
+            try (Recording recording = new Recording()) {
+                byte[] content = "virtual-threads".getBytes(StandardCharsets.UTF_8);
+                uploadFileStream("Pinned.bin", content);
+                String uuid = extractUuid("Pinned.bin");
+                FileMeta fileMeta = fileMetaRepository.findByUuidAndOwnerId(uuid, userId).orElseThrow();
+                recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+                recording.start();
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    List<Future<byte[]>> downloads = IntStream.range(0, 64)
+                            .mapToObj(i -> executor.submit(() -> fileContentCache.getUserFile(fileMeta).getContentAsByteArray()))
+                            .toList();
+                    for (Future<byte[]> download : downloads)
+                        assertArrayEquals(content, download.get());
+                }
+                recording.stop();
+                recording.dump(recordingFile);
+                assertTrue(RecordingFile.readAllEvents(recordingFile).isEmpty(), "Virtual thread was pinned while loading cached content");
+                deleteFile(uuid, "Pinned.bin");
+            } finally {
+                Files.deleteIfExists(recordingFile);
+            }
+        }
+
+        @Test
+        void getFile_Cached_ServedFromMemoryUntilDeleted() throws Exception {
+            String filename = "Avatar.bin";
+            byte[] content = "0123456789".getBytes(StandardCharsets.UTF_8);
+            uploadFileStream(filename, content);
+            String uuid = extractUuid(filename);
+            for (int i = 0; i < 2; i++) {
+                byte[] downloaded = mockMvc.perform(MockMvcRequestBuilders.get("/api/files/{uuid}", uuid)
+                                .header("Authorization", "Bearer %s".formatted(token)))
+                        .andExpect(status().isOk())
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsByteArray();
+                assertArrayEquals(content, downloaded);
+            }
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/files/{uuid}", uuid)
+                            .header("Range", "bytes=2-5")
+                            .header("Authorization", "Bearer %s".formatted(token)))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(MockMvcResultMatchers.content().bytes("2345".getBytes(StandardCharsets.UTF_8)));
+            assertTrue(meterRegistry.get("cache.gets").tag("cache", "file-content").tag("result", "hit")
+                    .functionCounter().count() >= 2, "Cached file was not served from memory");
+
+            deleteFile(uuid, filename);
+            getFileAndExpectError(uuid, UUID_NOT_EXIST, uuid, userId);
+            assertEquals(0.0, meterRegistry.get("cache.size").tag("cache", "file-content").gauge().value());
+        }
+
+    }
+
+    @Nested
+    @TestPropertySource(properties = "file.service.deduplication.enabled=true")
+    class DeduplicationEnabled {
+
+        @BeforeEach
+        void useNestedContext(@Autowired MockMvc mockMvc) {
+            FileControllerTest.this.mockMvc = mockMvc;
+        }
+
+        @Test
+        void uploadFile_Deduplicated_SharesBlobUntilLastDelete() throws Exception {
+            byte[] content = "Deduplicated content".getBytes(StandardCharsets.UTF_8);
+            uploadFileStream("First.txt", content);
+            uploadFileStream("Second.txt", content);
+            String firstUuid = extractUuid("First.txt");
+            String secondUuid = extractUuid("Second.txt");
+            Path userFolder = tempDir.resolve(String.valueOf(userId));
+            assertTrue(Files.isSameFile(userFolder.resolve(firstUuid + ".txt"), userFolder.resolve(secondUuid + ".txt")),
+                    "Identical uploads are not stored as one blob");
+            assertEquals(2L, fileBlobRepository.findAll().get(0).getRefCount());
+
+            deleteFile(firstUuid, "First.txt");
+            assertEquals(1L, fileBlobRepository.findAll().get(0).getRefCount());
+            byte[] downloaded = mockMvc.perform(MockMvcRequestBuilders.get("/api/files/{uuid}", secondUuid)
+                            .header("Authorization", "Bearer %s".formatted(token)))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsByteArray();
+            assertArrayEquals(content, downloaded);
+
+            deleteFile(secondUuid, "Second.txt");
+            assertTrue(fileBlobRepository.findAll().isEmpty(), "Unreferenced blob was not removed");
+        }
+
+    }
+
+    @Nested
+    @TestPropertySource(properties = {"file.service.layout.shard-levels=2", "tasks.layout-migration.enabled=false"})
+    class ShardedLayout {
+
+        @Autowired
+        private FilePathService filePathService;
+
+        @BeforeEach
+        void useNestedContext(@Autowired MockMvc mockMvc) {
+            FileControllerTest.this.mockMvc = mockMvc;
+        }
+
+        @AfterEach
+        void tearDown() {
+            taskCursorRepository.deleteById("layout-migration");
+            filePathService.loadMigratedLayout();
+        }
+
+        private Path getShardedFile(String uuid, String extension, int shardLevels) {
+            Path file = tempDir.resolve(String.valueOf(userId));
+            for (int level = 0; level < shardLevels; level++)
+                file = file.resolve(uuid.substring(level * 2, level * 2 + 2));
+            return file.resolve(uuid + extension);
+        }
+
+        private void restartWithMigratedLayout(int shardLevels) {
+            taskCursorRepository.save(new TaskCursor("layout-migration", shardLevels));
+            filePathService.loadMigratedLayout();
+        }
+
+        @Test
+        void shardedLayout_MigratesAndServesFiles() throws Exception {
+            byte[] content = "Sharded content".getBytes(StandardCharsets.UTF_8);
+            uploadFileStream("Sharded.bin", content);
+            String shardedUuid = extractUuid("Sharded.bin");
+            assertTrue(Files.exists(getShardedFile(shardedUuid, ".bin", 2)), "New upload was not stored in the sharded layout");
+
+            uploadFileStream("Flat.bin", content);
+            String flatUuid = extractUuid("Flat.bin");
+            Files.move(getShardedFile(flatUuid, ".bin", 2), getShardedFile(flatUuid, ".bin", 0));
+            restartWithMigratedLayout(0);
+            filePathService.migrateUserFolders();
+            assertTrue(Files.exists(getShardedFile(flatUuid, ".bin", 2)), "File was not moved to the sharded layout");
+            assertEquals(2, taskCursorRepository.findById("layout-migration").orElseThrow().getPosition());
+            assertArrayEquals(content, getFile(flatUuid, "Flat.bin"));
+
+            deleteFile(shardedUuid, "Sharded.bin");
+            deleteFile(flatUuid, "Flat.bin");
+        }
+
+        @Test
+        void shardedLayout_PendingMigration_ServesFilesFromPreviousLayout() throws Exception {
+            byte[] content = "Pending content".getBytes(StandardCharsets.UTF_8);
+            uploadFileStream("Pending.bin", content);
+            String uuid = extractUuid("Pending.bin");
+            Path previousFile = getShardedFile(uuid, ".bin", 1);
+            Files.createDirectories(previousFile.getParent());
+            Files.move(getShardedFile(uuid, ".bin", 2), previousFile);
+            restartWithMigratedLayout(1);
+
+            assertArrayEquals(content, getFile(uuid, "Pending.bin"));
+            assertEquals(List.of(uuid + ".bin"), filePathService.syncingUserFiles(List.of(uuid + ".bin"), List.of(uuid + ".bin"), userId));
+
+            filePathService.migrateUserFolders();
+            assertTrue(Files.exists(getShardedFile(uuid, ".bin", 2)), "File was not moved to the sharded layout");
+            deleteFile(uuid, "Pending.bin");
+        }
+
+    }
+
+    @Nested
+    @TestPropertySource(properties = {"file.service.integrity.scrub-batch-size=1", "tasks.integrity-scrub.enabled=false"})
+    class SingleFileScrubBatches {
+
+        @Autowired
+        private FileIntegrityService fileIntegrityService;
+
+        @BeforeEach
+        void useNestedContext(@Autowired MockMvc mockMvc) {
+            FileControllerTest.this.mockMvc = mockMvc;
+        }
+
+        @Test
+        void scrubFiles_RecordsMismatchAndPersistsCursor() throws Exception {
+            uploadFileStream("Scrubbed.bin", "scrubbed content".getBytes(StandardCharsets.UTF_8));
+            uploadFileStream("Intact.bin", "intact content".getBytes(StandardCharsets.UTF_8));
+            String uuid = extractUuid("Scrubbed.bin");
+            Files.write(tempDir.resolve(String.valueOf(userId)).resolve(uuid + ".bin"), "corrupted content".getBytes(StandardCharsets.UTF_8));
+            taskCursorRepository.deleteAll();
+            fileIntegrityService.scrub();
+            assertEquals(fileMetaRepository.findByUuidAndOwnerId(uuid, userId).orElseThrow().getId(),
+                    taskCursorRepository.findById("integrity-scrub").orElseThrow().getPosition());
+            fileIntegrityService.scrub();
+            fileIntegrityService.scrub();
+            assertEquals(0, taskCursorRepository.findById("integrity-scrub").orElseThrow().getPosition());
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                            .header("Authorization", "Bearer %s".formatted(token)))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.name == 'Scrubbed.bin')].suspiciousModified").value(true))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.name == 'Intact.bin')].suspiciousModified").isEmpty());
+        }
+
+    }
+
+    @Nested
+    @TestPropertySource(properties = "file.service.listing.default-limit=2")
+    class SmallDefaultPageLimit {
+
+        @BeforeEach
+        void useNestedContext(@Autowired MockMvc mockMvc) {
+            FileControllerTest.this.mockMvc = mockMvc;
+        }
+
+        @Test
+        void getFilesMeta_WithoutParameters_ReturnsFullList() throws Exception {
+            for (String filename : List.of("Default1.txt", "Default2.txt", "Default3.txt"))
+                uploadFileStream(filename, filename.getBytes(StandardCharsets.UTF_8));
+
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/files")
+                            .header("Authorization", "Bearer %s".formatted(token)))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(3))
+                    .andExpect(header().doesNotExist("X-Next-Cursor"));
+        }
+
+    }
+
 }